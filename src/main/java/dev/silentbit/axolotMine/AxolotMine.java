@@ -1,21 +1,56 @@
 package dev.silentbit.axolotMine;
 
 import dev.silentbit.axolotMine.commands.AxolotMineCommand;
+import dev.silentbit.axolotMine.listeners.BlockBreakListener;
+import dev.silentbit.axolotMine.listeners.ChunkListener;
+import dev.silentbit.axolotMine.listeners.PlayerListener;
+import dev.silentbit.axolotMine.listeners.WorldListener;
 import dev.silentbit.axolotMine.managers.*;
-import dev.silentbit.axolotMine.models.Mine;
+import dev.silentbit.axolotMine.metrics.MetricsServer;
+import dev.silentbit.axolotMine.metrics.PluginMetrics;
+import dev.silentbit.axolotMine.metrics.ResetMetrics;
+import dev.silentbit.axolotMine.models.ResetBackend;
+import dev.silentbit.axolotMine.state.LocalMineStateStore;
+import dev.silentbit.axolotMine.state.MineStateStore;
+import dev.silentbit.axolotMine.state.RedisMineStateStore;
+import dev.silentbit.axolotMine.utils.IoExecutor;
 import dev.silentbit.axolotMine.utils.MessageUtil;
+import dev.silentbit.axolotMine.utils.SchedulerFacade;
 import net.kyori.adventure.text.minimessage.MiniMessage;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
 public final class AxolotMine extends JavaPlugin {
 
     private static AxolotMine instance;
     private MineManager mineManager;
+    private LayoutManager layoutManager;
+    private CompositionManager compositionManager;
+    private SnapshotManager snapshotManager;
+    private ChunkTicketManager chunkTicketManager;
+    private PendingResetManager pendingResetManager;
+    private ThrottleManager throttleManager;
+    private SurveyManager surveyManager;
+    private ResetJournal resetJournal;
+    private ActivityManager activityManager;
+    private ResetWarningManager resetWarningManager;
+    private ResetWindowManager resetWindowManager;
+    private NearestMineTracker nearestMineTracker;
     private ConfigManager configManager;
     private WorldEditHandler worldEditHandler;
     private WorldsHandler worldsHandler;
     private MessageUtil messageUtil;
+    private ResetMetrics resetMetrics;
+    private PluginMetrics pluginMetrics;
+    private MetricsServer metricsServer;
+    private MineStateStore stateStore;
     private MiniMessage miniMessage;
+    private ExecutorService ioExecutor;
+    private SchedulerFacade schedulerFacade;
 
     @Override
     public void onEnable() {
@@ -41,22 +76,74 @@ public final class AxolotMine extends JavaPlugin {
         getLogger().info("│  Initializing AxolotMine components...  │");
         getLogger().info("└─────────────────────────────────────────┘");
 
+        schedulerFacade = new SchedulerFacade(this);
+        getLogger().info("  ✓ Running on " + (schedulerFacade.isFolia() ? "Folia" : "Paper/Spigot") + " scheduler");
+
         configManager = new ConfigManager(this);
         configManager.loadConfigs();
         getLogger().info("  ✓ Configuration Manager loaded");
 
+        ioExecutor = IoExecutor.create(configManager.getIoThreads());
+        getLogger().info("  ✓ I/O executor ready (" +
+                (IoExecutor.isVirtual(ioExecutor) ? "virtual threads" : configManager.getIoThreads() + " threads") + ")");
+
         messageUtil = new MessageUtil(this);
+        resetMetrics = new ResetMetrics();
+        pluginMetrics = new PluginMetrics();
         worldEditHandler = new WorldEditHandler(this);
         getLogger().info("  ✓ WorldEdit Handler initialized");
+        if (configManager.isChunkResync() && configManager.getResetBackend() != ResetBackend.WORLDEDIT) {
+            // Bukkit cannot hold back the per-block packets, a chunk resend would only come on top
+            getLogger().warning("  ✗ reset.client-resync 'chunk' needs reset.backend 'worldedit', using vanilla block updates");
+        } else if (configManager.isChunkResync() && !worldEditHandler.canSuppressNetwork()) {
+            getLogger().warning("  ✗ reset.client-resync 'chunk' needs a newer WorldEdit, using vanilla block updates");
+        }
 
-        // Optional: Worlds API integration
-        if (getServer().getPluginManager().getPlugin("Worlds") != null) {
+        // Loading worlds at runtime, Folia does not allow it
+        if (!schedulerFacade.isFolia()) {
             worldsHandler = new WorldsHandler(this);
-            getLogger().info("  ✓ Worlds API integration enabled");
+            getLogger().info("  ✓ On-demand world loading enabled");
+        } else {
+            getLogger().info("  ✗ On-demand world loading is not supported on Folia, " +
+                    "mines wait until their world is loaded by the server or another plugin");
+        }
+
+        compositionManager = new CompositionManager(this);
+        compositionManager.load();
+        getLogger().info("  ✓ Composition Manager loaded (" + compositionManager.getProfileNames().size() + " profiles)");
+
+        layoutManager = new LayoutManager(this);
+        getLogger().info("  ✓ Layout Manager initialized");
+
+        snapshotManager = new SnapshotManager(this);
+        getLogger().info("  ✓ Snapshot Manager initialized");
+
+        chunkTicketManager = new ChunkTicketManager(this);
+        pendingResetManager = new PendingResetManager(this);
+        getServer().getPluginManager().registerEvents(new ChunkListener(this), this);
+        throttleManager = new ThrottleManager(this);
+        surveyManager = new SurveyManager(this);
+
+        stateStore = createStateStore();
+
+        resetJournal = new ResetJournal(this);
+        try {
+            resetJournal.start();
+        } catch (IOException e) {
+            getLogger().severe("  ✗ Failed to open reset journal, resets are only saved with the mine files: " + e.getMessage());
         }
 
+        resetWindowManager = new ResetWindowManager(this);
+        nearestMineTracker = new NearestMineTracker(this);
         mineManager = new MineManager(this);
         getLogger().info("  ✓ Mine Manager initialized");
+        stateStore.start(mineManager);
+        getServer().getPluginManager().registerEvents(new WorldListener(this), this);
+        getServer().getPluginManager().registerEvents(new PlayerListener(this), this);
+
+        activityManager = new ActivityManager(this);
+        resetWarningManager = new ResetWarningManager(this);
+        getServer().getPluginManager().registerEvents(new BlockBreakListener(this), this);
 
         // Register commands
         getCommand("axolotmine").setExecutor(new AxolotMineCommand(this));
@@ -69,22 +156,39 @@ public final class AxolotMine extends JavaPlugin {
         }
 
         // Load all mines
-        mineManager.loadMines();
+        mineManager.loadMines().exceptionally(throwable -> {
+            getLogger().severe("Failed to load mines: " + throwable.getMessage());
+            return null;
+        });
+        activityManager.start();
+        resetWarningManager.start();
+        resetWindowManager.start();
 
-        // Schedule periodic auto-save every 5 minutes
-        getServer().getGlobalRegionScheduler().runAtFixedRate(
-                this,
-                task -> {
+        // Schedule periodic auto-save every 5 minutes, off the region threads
+        schedulerFacade.runAsyncAtFixedRate(
+                () -> {
                     getLogger().info("Auto-saving all mines...");
-                    for (Mine mine : mineManager.getAllMines()) {
-                        mineManager.saveMine(mine);
-                    }
+                    mineManager.saveAll();
                 },
-                6000L, // Initial delay: 5 minutes (6000 ticks)
-                6000L  // Period: 5 minutes
+                5L, // Initial delay: 5 minutes
+                5L, // Period: 5 minutes
+                TimeUnit.MINUTES
         );
         getLogger().info("  ✓ Auto-save scheduled (every 5 minutes)");
 
+        // Optional: Prometheus endpoint
+        if (configManager.isMetricsEnabled()) {
+            metricsServer = new MetricsServer(this);
+            try {
+                metricsServer.start(configManager.getMetricsHost(), configManager.getMetricsPort());
+                getLogger().info("  ✓ Metrics endpoint on " + configManager.getMetricsHost() + ":" +
+                        configManager.getMetricsPort());
+            } catch (IOException e) {
+                getLogger().warning("  ✗ Failed to start metrics endpoint: " + e.getMessage());
+                metricsServer = null;
+            }
+        }
+
         getLogger().info("┌─────────────────────────────────────────┐");
         getLogger().info("│  AxolotMine enabled successfully!       │");
         getLogger().info("│  Command-Based | Admin-Only Mode        │");
@@ -93,18 +197,79 @@ public final class AxolotMine extends JavaPlugin {
 
     @Override
     public void onDisable() {
+        if (metricsServer != null) {
+            metricsServer.shutdown();
+        }
+
         // Cancel all scheduled tasks and save data
         if (mineManager != null) {
             getLogger().info("Shutting down mine reset tasks and saving data...");
             mineManager.shutdown();
         }
 
+        if (activityManager != null) {
+            activityManager.shutdown();
+        }
+
+        if (resetWarningManager != null) {
+            resetWarningManager.shutdown();
+        }
+
+        if (resetWindowManager != null) {
+            resetWindowManager.shutdown();
+        }
+
+        if (resetJournal != null) {
+            resetJournal.shutdown();
+        }
+
+        if (layoutManager != null) {
+            layoutManager.shutdown();
+        }
+
+        if (snapshotManager != null) {
+            snapshotManager.shutdown();
+        }
+
+        if (stateStore != null) {
+            stateStore.shutdown();
+        }
+
+        // Last, every manager above may still have queued a write
+        if (ioExecutor != null) {
+            ioExecutor.shutdown();
+            try {
+                if (!ioExecutor.awaitTermination(10, TimeUnit.SECONDS)) {
+                    getLogger().warning("Some file writes did not finish before shutdown");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
         getLogger().info("╔════════════════════════════════════════╗");
         getLogger().info("║  AxolotMine has been disabled!         ║");
         getLogger().info("║  Thank you for using AxolotMine!       ║");
         getLogger().info("╚════════════════════════════════════════╝");
     }
 
+    private MineStateStore createStateStore() {
+        String serverId = configManager.getServerId();
+        if (serverId.isEmpty()) {
+            serverId = UUID.randomUUID().toString();
+        }
+
+        if (configManager.getStateBackend().equals("redis")) {
+            getLogger().info("  ✓ Shared mine state via Redis at " + configManager.getRedisHost() + ":" +
+                    configManager.getRedisPort() + " (server " + serverId + ")");
+            return new RedisMineStateStore(getLogger(), serverId, configManager.getRedisHost(),
+                    configManager.getRedisPort(), configManager.getRedisPassword(), configManager.getRedisDatabase(),
+                    configManager.getRedisNamespace(), configManager.getOwnerLeaseMillis());
+        }
+
+        return new LocalMineStateStore(serverId);
+    }
+
     private void displayBanner() {
         getLogger().info("╔════════════════════════════════════════════════════════════╗");
         getLogger().info("║                                                            ║");
@@ -140,6 +305,72 @@ public final class AxolotMine extends JavaPlugin {
         return mineManager;
     }
 
+    public LayoutManager getLayoutManager() {
+        return layoutManager;
+    }
+
+    public CompositionManager getCompositionManager() {
+        return compositionManager;
+    }
+
+    public SnapshotManager getSnapshotManager() {
+        return snapshotManager;
+    }
+
+    public ChunkTicketManager getChunkTicketManager() {
+        return chunkTicketManager;
+    }
+
+    public PendingResetManager getPendingResetManager() {
+        return pendingResetManager;
+    }
+
+    public ThrottleManager getThrottleManager() {
+        return throttleManager;
+    }
+
+    public SurveyManager getSurveyManager() {
+        return surveyManager;
+    }
+
+    public ActivityManager getActivityManager() {
+        return activityManager;
+    }
+
+    public ResetWarningManager getResetWarningManager() {
+        return resetWarningManager;
+    }
+
+    public ResetWindowManager getResetWindowManager() {
+        return resetWindowManager;
+    }
+
+    public NearestMineTracker getNearestMineTracker() {
+        return nearestMineTracker;
+    }
+
+    /**
+     * Schedules work on the right thread for the running server.
+     */
+    public SchedulerFacade getSchedulerFacade() {
+        return schedulerFacade;
+    }
+
+    /**
+     * Executor for blocking file I/O, never run such work on a region thread.
+     */
+    public ExecutorService getIoExecutor() {
+        return ioExecutor;
+    }
+
+    public MineStateStore getStateStore() {
+        return stateStore;
+    }
+
+    public ResetJournal getResetJournal() {
+        return resetJournal;
+    }
+
     public ConfigManager getConfigManager() {
         return configManager;
     }
@@ -156,6 +387,14 @@ public final class AxolotMine extends JavaPlugin {
         return messageUtil;
     }
 
+    public ResetMetrics getResetMetrics() {
+        return resetMetrics;
+    }
+
+    public PluginMetrics getPluginMetrics() {
+        return pluginMetrics;
+    }
+
     public MiniMessage getMiniMessage() {
         return miniMessage;
     }
@@ -1,5 +1,7 @@
 package dev.silentbit.axolotMine;
 
+import dev.silentbit.axolotMine.jfr.PlaceholderResolve;
+import dev.silentbit.axolotMine.managers.NearestMineTracker;
 import dev.silentbit.axolotMine.models.Mine;
 import me.clip.placeholderapi.expansion.PlaceholderExpansion;
 import org.bukkit.Material;
@@ -44,6 +46,22 @@ public class AxolotMinePlaceholders extends PlaceholderExpansion {
 
     @Override
     public String onPlaceholderRequest(Player player, @NotNull String params) {
+        PlaceholderResolve event = new PlaceholderResolve();
+        event.begin();
+
+        String result = resolve(player, params);
+        plugin.getPluginMetrics().recordPlaceholder(result != null);
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.params = params;
+            event.resolved = result != null;
+            event.commit();
+        }
+        return result;
+    }
+
+    private String resolve(Player player, String params) {
 
         // %axolotmine_total%
         if (params.equals("total")) {
@@ -88,13 +106,17 @@ public class AxolotMinePlaceholders extends PlaceholderExpansion {
             return getMineAttribute(mine, attribute);
         }
 
-        // Closest mine to player
+        // Closest mine to player, kept up to date as the player moves
         if (player != null && params.startsWith("closest_")) {
             String attribute = params.substring(8);
-            Mine closest = findClosestMine(player);
-            if (closest == null) return "N/A";
+            NearestMineTracker.Nearest nearest = plugin.getNearestMineTracker().get(player);
+            if (nearest.getMine() == null) return "N/A";
 
-            return getMineAttribute(closest, attribute);
+            // %axolotmine_closest_distance%
+            if (attribute.equals("distance")) {
+                return String.format("%.0f", nearest.getDistance());
+            }
+            return getMineAttribute(nearest.getMine(), attribute);
         }
 
         // List all mines
@@ -113,7 +135,7 @@ public class AxolotMinePlaceholders extends PlaceholderExpansion {
         // Average reset time
         if (params.equals("avg_reset_time")) {
             double avg = plugin.getMineManager().getAllMines().stream()
-                    .mapToInt(Mine::getResetInterval)
+                    .mapToInt(Mine::getCurrentInterval)
                     .average()
                     .orElse(0);
             return String.format("%.0f", avg);
@@ -135,7 +157,10 @@ public class AxolotMinePlaceholders extends PlaceholderExpansion {
                 return String.valueOf(mine.getTimeUntilReset() / 60000);
 
             case "interval":
-                return String.valueOf(mine.getResetInterval());
+                return String.valueOf(mine.getCurrentInterval());
+
+            case "break_rate":
+                return String.format("%.2f", mine.getBreakRate());
 
             case "world":
                 return mine.getWorldName();
@@ -170,7 +195,7 @@ public class AxolotMinePlaceholders extends PlaceholderExpansion {
 
             case "progress":
                 double progressPercentage = (double) mine.getTimeUntilReset() /
-                        (mine.getResetInterval() * 1000L) * 100;
+                        (mine.getCurrentInterval() * 1000L) * 100;
                 return String.format("%.0f%%", progressPercentage);
 
             case "progress_bar":
@@ -190,6 +215,18 @@ public class AxolotMinePlaceholders extends PlaceholderExpansion {
                         .orElse("0%");
 
             default:
+                // Share of a material in the last reset
+                // %axolotmine_mine_MyMine_placed_STONE%
+                if (attribute.toLowerCase().startsWith("placed_")) {
+                    try {
+                        Material material = Material.valueOf(attribute.substring(7).toUpperCase());
+                        double placed = mine.getPlacedPercentage(material);
+                        return placed < 0 ? "N/A" : String.format("%.1f%%", placed);
+                    } catch (IllegalArgumentException e) {
+                        return null;
+                    }
+                }
+
                 // Check if requesting specific material percentage
                 // %axolotmine_mine_MyMine_STONE%
                 try {
@@ -204,21 +241,8 @@ public class AxolotMinePlaceholders extends PlaceholderExpansion {
         }
     }
 
-    private Mine findClosestMine(Player player) {
-        return plugin.getMineManager().getAllMines().stream()
-                .filter(mine -> mine.getWorldName().equals(player.getWorld().getName()))
-                .min((m1, m2) -> {
-                    double dist1 = player.getLocation().distance(
-                            m1.getPos1().clone().add(m1.getPos2()).multiply(0.5));
-                    double dist2 = player.getLocation().distance(
-                            m2.getPos1().clone().add(m2.getPos2()).multiply(0.5));
-                    return Double.compare(dist1, dist2);
-                })
-                .orElse(null);
-    }
-
     private String createTextProgressBar(Mine mine) {
-        int totalSeconds = mine.getResetInterval();
+        int totalSeconds = mine.getCurrentInterval();
         long remainingSeconds = mine.getTimeUntilReset() / 1000;
 
         double percentage = (double) remainingSeconds / totalSeconds;
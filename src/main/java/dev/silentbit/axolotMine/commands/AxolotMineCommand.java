@@ -4,9 +4,21 @@ import com.sk89q.worldedit.IncompleteRegionException;
 import com.sk89q.worldedit.math.BlockVector3;
 import com.sk89q.worldedit.regions.Region;
 import dev.silentbit.axolotMine.AxolotMine;
+import dev.silentbit.axolotMine.events.MinePreResetEvent;
+import dev.silentbit.axolotMine.managers.CompositionManager;
+import dev.silentbit.axolotMine.metrics.ResetMetrics;
+import dev.silentbit.axolotMine.models.CompositionProfile;
 import dev.silentbit.axolotMine.models.Mine;
+import dev.silentbit.axolotMine.models.ResetBackend;
+import dev.silentbit.axolotMine.models.ResetMode;
+import dev.silentbit.axolotMine.models.ResetResult;
+import dev.silentbit.axolotMine.models.IntervalMode;
+import dev.silentbit.axolotMine.models.SeedPolicy;
+import dev.silentbit.axolotMine.tasks.BenchmarkTask;
+import dev.silentbit.axolotMine.utils.ConfigUtil;
 import org.bukkit.Location;
 import org.bukkit.Material;
+import org.bukkit.World;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
@@ -14,11 +26,13 @@ import org.bukkit.command.TabCompleter;
 import org.bukkit.entity.Player;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
 public class AxolotMineCommand implements CommandExecutor, TabCompleter {
 
     private final AxolotMine plugin;
+    private final AtomicBoolean benchmarking = new AtomicBoolean();
 
     public AxolotMineCommand(AxolotMine plugin) {
         this.plugin = plugin;
@@ -64,6 +78,16 @@ public class AxolotMineCommand implements CommandExecutor, TabCompleter {
             case "composition":
             case "comp":
                 return handleComposition(sender, args);
+            case "profile":
+                return handleProfile(sender, args);
+            case "seed":
+                return handleSeed(sender, args);
+            case "snapshot":
+                return handleSnapshot(sender, args);
+            case "survey":
+                return handleSurvey(sender, args);
+            case "bench":
+                return handleBench(sender, args);
             case "reload":
                 return handleReload(sender);
             case "help":
@@ -167,12 +191,20 @@ public class AxolotMineCommand implements CommandExecutor, TabCompleter {
         Mine mine = plugin.getMineManager().getMine(mineName);
 
         if (mine == null) {
-            plugin.getMessageUtil().sendMessage(sender, "mine-not-found",
-                    Map.of("name", mineName));
+            if (!handleUnresolved(sender, mineName)) {
+                plugin.getMessageUtil().sendMessage(sender, "mine-not-found",
+                        Map.of("name", mineName));
+            }
+            return true;
+        }
+
+        ResetResult result = plugin.getMineManager().resetMine(mine, true, MinePreResetEvent.Cause.COMMAND).getNow(null);
+        if (result != null && result.getStatus() == ResetResult.Status.CANCELLED) {
+            plugin.getMessageUtil().sendMessage(sender, "mine-reset-cancelled",
+                    Map.of("mine", mineName));
             return true;
         }
 
-        plugin.getMineManager().resetMine(mine, true);
         plugin.getMessageUtil().sendMessage(sender, "mine-reset",
                 Map.of("name", mineName));
 
@@ -232,7 +264,7 @@ public class AxolotMineCommand implements CommandExecutor, TabCompleter {
                             "size", mine.getSizeString(),
                             "blocks", String.format("%,d", mine.getBlockCount()),
                             "time", mine.getFormattedTimeUntilReset(),
-                            "interval", String.valueOf(mine.getResetInterval())
+                            "interval", String.valueOf(mine.getCurrentInterval())
                     ));
         }
 
@@ -248,6 +280,25 @@ public class AxolotMineCommand implements CommandExecutor, TabCompleter {
             plugin.getMessageUtil().sendMessage(sender, "plugin-info-author");
             plugin.getMessageUtil().sendMessage(sender, "plugin-info-mines",
                     Map.of("count", String.valueOf(plugin.getMineManager().getAllMines().size())));
+
+            // Write time per backend, to compare lighting behaviour
+            ResetMetrics metrics = plugin.getResetMetrics();
+            for (ResetBackend backend : ResetBackend.values()) {
+                if (metrics.getResets(backend) == 0) continue;
+
+                plugin.getMessageUtil().sendMessage(sender, "plugin-info-backend",
+                        Map.of(
+                                "backend", backend.name().toLowerCase(),
+                                "count", String.valueOf(metrics.getResets(backend)),
+                                "time", String.format("%.1f", metrics.getAverageMillis(backend)),
+                                "blocks", String.format("%,.0f", metrics.getBlocksPerMillisecond(backend))
+                        ));
+            }
+
+            if (metrics.getChunkResyncs() > 0) {
+                plugin.getMessageUtil().sendMessage(sender, "plugin-info-resyncs",
+                        Map.of("count", String.format("%,d", metrics.getChunkResyncs())));
+            }
             return true;
         }
 
@@ -269,8 +320,24 @@ public class AxolotMineCommand implements CommandExecutor, TabCompleter {
                 Map.of("size", mine.getSizeString()));
         plugin.getMessageUtil().sendMessage(sender, "mine-info-blocks",
                 Map.of("blocks", String.format("%,d", mine.getBlockCount())));
-        plugin.getMessageUtil().sendMessage(sender, "mine-info-interval",
-                Map.of("interval", String.valueOf(mine.getResetInterval())));
+        if (mine.getIntervalMode() == IntervalMode.ADAPTIVE) {
+            plugin.getMessageUtil().sendMessage(sender, "mine-info-adaptive",
+                    Map.of("interval", String.valueOf(mine.getCurrentInterval()),
+                            "min", String.valueOf(plugin.getActivityManager().getMinInterval(mine)),
+                            "max", String.valueOf(plugin.getActivityManager().getMaxInterval(mine)),
+                            "rate", String.format("%.2f", mine.getBreakRate())));
+        } else if (mine.getIntervalMode() == IntervalMode.SCHEDULE) {
+            plugin.getMessageUtil().sendMessage(sender, "mine-info-schedule",
+                    Map.of("schedule", String.valueOf(mine.getSchedule())));
+        } else {
+            plugin.getMessageUtil().sendMessage(sender, "mine-info-interval",
+                    Map.of("interval", String.valueOf(mine.getResetInterval())));
+        }
+        plugin.getMessageUtil().sendMessage(sender, "mine-info-resetmode",
+                Map.of("mode", mine.getResetMode().name().toLowerCase()));
+        if (mine.isResetPending()) {
+            plugin.getMessageUtil().sendMessage(sender, "mine-info-pending");
+        }
         plugin.getMessageUtil().sendMessage(sender, "mine-info-nextreset",
                 Map.of("time", mine.getFormattedTimeUntilReset()));
 
@@ -290,11 +357,21 @@ public class AxolotMineCommand implements CommandExecutor, TabCompleter {
         // Show composition
         plugin.getMessageUtil().sendMessage(sender, "mine-info-composition");
         for (Map.Entry<Material, Double> entry : mine.getComposition().entrySet()) {
-            plugin.getMessageUtil().sendMessage(sender, "mine-info-composition-entry",
-                    Map.of(
-                            "material", formatMaterialName(entry.getKey()),
-                            "percentage", String.format("%.1f%%", entry.getValue())
-                    ));
+            double placed = mine.getPlacedPercentage(entry.getKey());
+            if (placed < 0) {
+                plugin.getMessageUtil().sendMessage(sender, "mine-info-composition-entry",
+                        Map.of(
+                                "material", formatMaterialName(entry.getKey()),
+                                "percentage", String.format("%.1f%%", entry.getValue())
+                        ));
+            } else {
+                plugin.getMessageUtil().sendMessage(sender, "mine-info-composition-placed",
+                        Map.of(
+                                "material", formatMaterialName(entry.getKey()),
+                                "percentage", String.format("%.1f%%", entry.getValue()),
+                                "placed", String.format("%.1f%%", placed)
+                        ));
+            }
         }
 
         return true;
@@ -315,6 +392,16 @@ public class AxolotMineCommand implements CommandExecutor, TabCompleter {
             return true;
         }
 
+        // /axolotmine setinterval <mine> adaptive [min] [max]
+        if (args[2].equalsIgnoreCase("adaptive")) {
+            return handleAdaptiveInterval(sender, mine, args);
+        }
+
+        // /axolotmine setinterval <mine> schedule <cron|@name>
+        if (args[2].equalsIgnoreCase("schedule")) {
+            return handleScheduleInterval(sender, mine, args);
+        }
+
         try {
             int interval = Integer.parseInt(args[2]);
             if (interval < 30) {
@@ -322,6 +409,7 @@ public class AxolotMineCommand implements CommandExecutor, TabCompleter {
                 return true;
             }
 
+            mine.setIntervalMode(IntervalMode.FIXED);
             mine.setResetInterval(interval);
             plugin.getMineManager().saveMine(mine); // Save immediately
             plugin.getMineManager().scheduleReset(mine); // Reschedule
@@ -336,6 +424,69 @@ public class AxolotMineCommand implements CommandExecutor, TabCompleter {
         return true;
     }
 
+    private boolean handleAdaptiveInterval(CommandSender sender, Mine mine, String[] args) {
+        int min = 0;
+        int max = 0;
+
+        try {
+            if (args.length >= 4) min = Integer.parseInt(args[3]);
+            if (args.length >= 5) max = Integer.parseInt(args[4]);
+        } catch (NumberFormatException e) {
+            plugin.getMessageUtil().sendMessage(sender, "invalid-number");
+            return true;
+        }
+
+        if ((args.length >= 4 && min < 30) || (args.length >= 5 && max < 30)) {
+            plugin.getMessageUtil().sendMessage(sender, "interval-too-small");
+            return true;
+        }
+
+        mine.setIntervalBounds(min, max);
+        if (plugin.getActivityManager().getMaxInterval(mine) < plugin.getActivityManager().getMinInterval(mine)) {
+            plugin.getMessageUtil().sendMessage(sender, "invalid-interval-bounds");
+            mine.setIntervalBounds(0, 0);
+            return true;
+        }
+
+        mine.setIntervalMode(IntervalMode.ADAPTIVE);
+        mine.setAdaptiveInterval(plugin.getActivityManager().computeInterval(mine));
+        plugin.getMineManager().saveMine(mine);
+        plugin.getMineManager().scheduleReset(mine);
+
+        plugin.getMessageUtil().sendMessage(sender, "interval-adaptive-set",
+                Map.of("mine", mine.getName(),
+                        "min", String.valueOf(plugin.getActivityManager().getMinInterval(mine)),
+                        "max", String.valueOf(plugin.getActivityManager().getMaxInterval(mine)),
+                        "interval", String.valueOf(mine.getCurrentInterval())));
+        return true;
+    }
+
+    private boolean handleScheduleInterval(CommandSender sender, Mine mine, String[] args) {
+        if (args.length < 4) {
+            plugin.getMessageUtil().sendMessage(sender, "usage-setinterval");
+            return true;
+        }
+
+        String expression = String.join(" ", Arrays.copyOfRange(args, 3, args.length));
+        try {
+            mine.setSchedule(plugin.getResetWindowManager().parse(expression));
+        } catch (IllegalArgumentException e) {
+            plugin.getMessageUtil().sendMessage(sender, "invalid-schedule",
+                    Map.of("reason", e.getMessage()));
+            return true;
+        }
+
+        mine.setIntervalMode(IntervalMode.SCHEDULE);
+        plugin.getMineManager().saveMine(mine);
+        plugin.getMineManager().scheduleReset(mine);
+
+        plugin.getMessageUtil().sendMessage(sender, "interval-schedule-set",
+                Map.of("mine", mine.getName(),
+                        "schedule", expression,
+                        "time", mine.getFormattedTimeUntilReset()));
+        return true;
+    }
+
     private boolean handleTeleport(CommandSender sender, String[] args) {
         if (!(sender instanceof Player)) {
             plugin.getMessageUtil().sendMessage(sender, "player-only");
@@ -352,8 +503,10 @@ public class AxolotMineCommand implements CommandExecutor, TabCompleter {
         Mine mine = plugin.getMineManager().getMine(mineName);
 
         if (mine == null) {
-            plugin.getMessageUtil().sendMessage(player, "mine-not-found",
-                    Map.of("name", mineName));
+            if (!handleUnresolved(player, mineName)) {
+                plugin.getMessageUtil().sendMessage(player, "mine-not-found",
+                        Map.of("name", mineName));
+            }
             return true;
         }
 
@@ -367,6 +520,23 @@ public class AxolotMineCommand implements CommandExecutor, TabCompleter {
         return true;
     }
 
+    /**
+     * Answers for a mine whose world is not loaded, and asks the Worlds
+     * integration to load it. Returns false if no such mine exists.
+     */
+    private boolean handleUnresolved(CommandSender sender, String mineName) {
+        Mine mine = plugin.getMineManager().getUnresolvedMine(mineName);
+        if (mine == null) return false;
+
+        Map<String, String> placeholders = Map.of("mine", mineName, "world", mine.getWorldName());
+        if (plugin.getMineManager().requestWorld(mineName)) {
+            plugin.getMessageUtil().sendMessage(sender, "mine-world-loading", placeholders);
+        } else {
+            plugin.getMessageUtil().sendMessage(sender, "mine-world-unloaded", placeholders);
+        }
+        return true;
+    }
+
     private boolean handleComposition(CommandSender sender, String[] args) {
         if (args.length < 2) {
             plugin.getMessageUtil().sendMessage(sender, "usage-composition");
@@ -382,6 +552,13 @@ public class AxolotMineCommand implements CommandExecutor, TabCompleter {
             return true;
         }
 
+        // Shared profiles are edited in the config, not through one of their mines
+        if (args.length >= 3 && mine.getProfile().isShared()) {
+            plugin.getMessageUtil().sendMessage(sender, "composition-uses-profile",
+                    Map.of("mine", mineName, "profile", mine.getProfile().getName()));
+            return true;
+        }
+
         // /axolotmine comp <mine> add <material> <percentage>
         if (args.length >= 3 && args[2].equalsIgnoreCase("add")) {
             if (args.length < 5) {
@@ -398,8 +575,12 @@ public class AxolotMineCommand implements CommandExecutor, TabCompleter {
                     return true;
                 }
 
-                mine.getComposition().put(material, percentage);
+                // getComposition() is a copy, the edit only counts once it is set back
+                Map<Material, Double> composition = mine.getComposition();
+                composition.put(material, percentage);
+                mine.setComposition(composition);
                 plugin.getMineManager().saveMine(mine);
+                plugin.getLayoutManager().prepare(mine); // Prepared layout used the old composition
 
                 plugin.getMessageUtil().sendMessage(sender, "composition-added",
                         Map.of(
@@ -414,6 +595,32 @@ public class AxolotMineCommand implements CommandExecutor, TabCompleter {
             return true;
         }
 
+        // /axolotmine comp <mine> import
+        if (args.length >= 3 && args[2].equalsIgnoreCase("import")) {
+            plugin.getMessageUtil().sendMessage(sender, "survey-started", Map.of("mine", mineName));
+            plugin.getSurveyManager().survey(mine).whenComplete((survey, throwable) -> {
+                if (throwable != null) {
+                    plugin.getMessageUtil().sendMessage(sender, "survey-failed",
+                            Map.of("mine", mineName, "error", String.valueOf(throwable.getMessage())));
+                    return;
+                }
+
+                Map<Material, Double> composition = survey.toComposition();
+                if (composition.isEmpty()) {
+                    plugin.getMessageUtil().sendMessage(sender, "composition-import-empty", Map.of("mine", mineName));
+                    return;
+                }
+
+                mine.setComposition(composition);
+                plugin.getMineManager().saveMine(mine);
+                plugin.getLayoutManager().prepare(mine); // Prepared layout used the old composition
+
+                plugin.getMessageUtil().sendMessage(sender, "composition-imported",
+                        Map.of("mine", mineName, "count", String.valueOf(composition.size())));
+            });
+            return true;
+        }
+
         // /axolotmine comp <mine> remove <material>
         if (args.length >= 3 && args[2].equalsIgnoreCase("remove")) {
             if (args.length < 4) {
@@ -429,8 +636,11 @@ public class AxolotMineCommand implements CommandExecutor, TabCompleter {
                     return true;
                 }
 
-                mine.getComposition().remove(material);
+                Map<Material, Double> composition = mine.getComposition();
+                composition.remove(material);
+                mine.setComposition(composition);
                 plugin.getMineManager().saveMine(mine);
+                plugin.getLayoutManager().prepare(mine);
 
                 plugin.getMessageUtil().sendMessage(sender, "composition-removed",
                         Map.of("material", formatMaterialName(material), "name", mineName));
@@ -444,6 +654,10 @@ public class AxolotMineCommand implements CommandExecutor, TabCompleter {
         // Show current composition
         plugin.getMessageUtil().sendMessage(sender, "composition-header",
                 Map.of("name", mineName));
+        if (mine.getProfile().isShared()) {
+            plugin.getMessageUtil().sendMessage(sender, "composition-profile-entry",
+                    Map.of("profile", mine.getProfile().getName()));
+        }
         for (Map.Entry<Material, Double> entry : mine.getComposition().entrySet()) {
             plugin.getMessageUtil().sendMessage(sender, "composition-entry",
                     Map.of(
@@ -455,10 +669,267 @@ public class AxolotMineCommand implements CommandExecutor, TabCompleter {
         return true;
     }
 
+    private boolean handleProfile(CommandSender sender, String[] args) {
+        CompositionManager profiles = plugin.getCompositionManager();
+
+        // /axolotmine profile list
+        if (args.length == 2 && args[1].equalsIgnoreCase("list")) {
+            plugin.getMessageUtil().sendMessage(sender, "profile-header");
+            for (String profileName : profiles.getProfileNames()) {
+                CompositionProfile profile = profiles.getProfile(profileName);
+                long users = plugin.getMineManager().getAllMines().stream()
+                        .filter(mine -> mine.getProfile() == profile)
+                        .count();
+                plugin.getMessageUtil().sendMessage(sender, "profile-entry", Map.of(
+                        "profile", profileName,
+                        "materials", String.valueOf(profile.getComposition().size()),
+                        "count", String.valueOf(users)));
+            }
+            return true;
+        }
+
+        if (args.length < 3) {
+            plugin.getMessageUtil().sendMessage(sender, "usage-profile");
+            return true;
+        }
+
+        String mineName = args[1];
+        Mine mine = plugin.getMineManager().getMine(mineName);
+        if (mine == null) {
+            plugin.getMessageUtil().sendMessage(sender, "mine-not-found", Map.of("mine", mineName));
+            return true;
+        }
+
+        // /axolotmine profile <mine> none keeps the current blocks as the mine's own composition
+        if (args[2].equalsIgnoreCase("none")) {
+            mine.setComposition(mine.getComposition());
+            plugin.getMineManager().saveMine(mine);
+            plugin.getMessageUtil().sendMessage(sender, "profile-cleared", Map.of("mine", mineName));
+            return true;
+        }
+
+        CompositionProfile profile = profiles.getProfile(args[2]);
+        if (profile == null) {
+            plugin.getMessageUtil().sendMessage(sender, "profile-not-found", Map.of("profile", args[2]));
+            return true;
+        }
+
+        mine.setProfile(profile);
+        plugin.getMineManager().saveMine(mine);
+        plugin.getLayoutManager().prepare(mine); // Prepared layout used the old composition
+
+        plugin.getMessageUtil().sendMessage(sender, "profile-set",
+                Map.of("mine", mineName, "profile", profile.getName()));
+        return true;
+    }
+
+    private boolean handleSeed(CommandSender sender, String[] args) {
+        if (args.length < 2) {
+            plugin.getMessageUtil().sendMessage(sender, "usage-seed");
+            return true;
+        }
+
+        String mineName = args[1];
+        Mine mine = plugin.getMineManager().getMine(mineName);
+
+        if (mine == null) {
+            plugin.getMessageUtil().sendMessage(sender, "mine-not-found",
+                    Map.of("mine", mineName));
+            return true;
+        }
+
+        // /axolotmine seed <mine> <fixed|rotating|random> [seed]
+        if (args.length >= 3) {
+            SeedPolicy policy = SeedPolicy.fromString(args[2], null);
+            if (policy == null) {
+                plugin.getMessageUtil().sendMessage(sender, "invalid-seed-policy");
+                return true;
+            }
+
+            try {
+                if (args.length >= 4) {
+                    mine.setSeed(Long.parseLong(args[3]));
+                }
+            } catch (NumberFormatException e) {
+                plugin.getMessageUtil().sendMessage(sender, "invalid-number");
+                return true;
+            }
+
+            mine.setSeedPolicy(policy);
+            plugin.getMineManager().saveMine(mine);
+            plugin.getLayoutManager().prepare(mine); // Previously prepared layout used the old seed
+
+            plugin.getMessageUtil().sendMessage(sender, "seed-set",
+                    Map.of("mine", mineName, "policy", policy.name().toLowerCase(),
+                            "seed", String.valueOf(mine.getSeed())));
+            return true;
+        }
+
+        // Show current seed settings
+        plugin.getMessageUtil().sendMessage(sender, "seed-info",
+                Map.of("mine", mineName, "policy", mine.getSeedPolicy().name().toLowerCase(),
+                        "seed", String.valueOf(mine.getSeed()),
+                        "count", String.valueOf(mine.getResetCount())));
+
+        return true;
+    }
+
+    private boolean handleSnapshot(CommandSender sender, String[] args) {
+        if (args.length < 2) {
+            plugin.getMessageUtil().sendMessage(sender, "usage-snapshot");
+            return true;
+        }
+
+        String mineName = args[1];
+        Mine mine = plugin.getMineManager().getMine(mineName);
+
+        if (mine == null) {
+            plugin.getMessageUtil().sendMessage(sender, "mine-not-found",
+                    Map.of("mine", mineName));
+            return true;
+        }
+
+        // /axolotmine snapshot <mine> clear
+        if (args.length >= 3 && args[2].equalsIgnoreCase("clear")) {
+            plugin.getSnapshotManager().delete(mineName);
+            mine.setResetMode(ResetMode.RANDOM);
+            plugin.getMineManager().saveMine(mine);
+            plugin.getLayoutManager().prepare(mine);
+
+            plugin.getMessageUtil().sendMessage(sender, "snapshot-cleared",
+                    Map.of("mine", mineName));
+            return true;
+        }
+
+        // Capture runs on the mine's region, the file is written asynchronously
+        plugin.getSnapshotManager().capture(mine).whenComplete((paletteSize, throwable) -> {
+            if (throwable != null) {
+                plugin.getLogger().severe("Failed to snapshot mine " + mineName + ": " + throwable.getMessage());
+                plugin.getMessageUtil().sendMessage(sender, "snapshot-failed",
+                        Map.of("mine", mineName));
+                return;
+            }
+
+            mine.setResetMode(ResetMode.RESTORE);
+            plugin.getMineManager().saveMine(mine);
+            plugin.getLayoutManager().discard(mineName);
+
+            plugin.getMessageUtil().sendMessage(sender, "snapshot-saved",
+                    Map.of("mine", mineName,
+                            "blocks", String.format("%,d", mine.getBlockCount()),
+                            "count", String.valueOf(paletteSize)));
+        });
+
+        return true;
+    }
+
+    private boolean handleSurvey(CommandSender sender, String[] args) {
+        if (args.length < 2) {
+            plugin.getMessageUtil().sendMessage(sender, "usage-survey");
+            return true;
+        }
+
+        String mineName = args[1];
+        Mine mine = plugin.getMineManager().getMine(mineName);
+
+        if (mine == null) {
+            plugin.getMessageUtil().sendMessage(sender, "mine-not-found",
+                    Map.of("mine", mineName));
+            return true;
+        }
+
+        plugin.getMessageUtil().sendMessage(sender, "survey-started", Map.of("mine", mineName));
+        plugin.getSurveyManager().survey(mine).whenComplete((survey, throwable) -> {
+            if (throwable != null) {
+                plugin.getMessageUtil().sendMessage(sender, "survey-failed",
+                        Map.of("mine", mineName, "error", String.valueOf(throwable.getMessage())));
+                return;
+            }
+
+            plugin.getMessageUtil().sendMessage(sender, "survey-header", Map.of("mine", mineName));
+            plugin.getMessageUtil().sendMessage(sender, "survey-remaining", Map.of(
+                    "percentage", String.format("%.1f%%", survey.getRemainingPercentage()),
+                    "blocks", String.format("%,d", survey.getSolidBlocks()),
+                    "total", String.format("%,d", survey.getVolume())));
+
+            survey.getCounts().entrySet().stream()
+                    .sorted(Map.Entry.<Material, Long>comparingByValue().reversed())
+                    .forEach(entry -> plugin.getMessageUtil().sendMessage(sender, "survey-entry", Map.of(
+                            "material", formatMaterialName(entry.getKey()),
+                            "count", String.format("%,d", entry.getValue()),
+                            "percentage", String.format("%.1f%%", entry.getValue() * 100.0 / Math.max(1, survey.getVolume())))));
+            plugin.getMessageUtil().sendMessage(sender, "survey-footer");
+        });
+
+        return true;
+    }
+
+    private boolean handleBench(CommandSender sender, String[] args) {
+        if (args.length < 2) {
+            plugin.getMessageUtil().sendMessage(sender, "usage-bench");
+            return true;
+        }
+
+        int maxSize = plugin.getConfigManager().getBenchMaxSize();
+        int size;
+        try {
+            size = Integer.parseInt(args[1]);
+        } catch (NumberFormatException e) {
+            plugin.getMessageUtil().sendMessage(sender, "invalid-number");
+            return true;
+        }
+        if (size < 1 || size > maxSize) {
+            plugin.getMessageUtil().sendMessage(sender, "bench-invalid-size", Map.of("max", String.valueOf(maxSize)));
+            return true;
+        }
+
+        // /axolotmine bench <size> [backend]
+        List<ResetBackend> backends = new ArrayList<>(Arrays.asList(ResetBackend.values()));
+        if (args.length >= 3) {
+            ResetBackend backend = ResetBackend.fromString(args[2], null);
+            if (backend == null) {
+                plugin.getMessageUtil().sendMessage(sender, "usage-bench");
+                return true;
+            }
+            backends = List.of(backend);
+        }
+
+        String worldName = plugin.getConfigManager().getBenchWorld();
+        World world = plugin.getServer().getWorld(worldName);
+        Location origin = ConfigUtil.stringToLocation(plugin.getConfigManager().getBenchOrigin(), world);
+        if (world == null || origin == null) {
+            plugin.getMessageUtil().sendMessage(sender, "bench-no-world", Map.of("world", worldName));
+            return true;
+        }
+
+        if (!benchmarking.compareAndSet(false, true)) {
+            plugin.getMessageUtil().sendMessage(sender, "bench-running");
+            return true;
+        }
+
+        plugin.getMessageUtil().sendMessage(sender, "bench-started", Map.of(
+                "size", String.valueOf(size),
+                "backends", backends.stream().map(backend -> backend.name().toLowerCase()).collect(Collectors.joining(", "))));
+        new BenchmarkTask(plugin, sender, origin, size, backends).start()
+                .whenComplete((ignored, throwable) -> benchmarking.set(false));
+
+        return true;
+    }
+
     private boolean handleReload(CommandSender sender) {
-        plugin.getConfigManager().loadConfigs();
-        plugin.getMineManager().loadMines();
-        plugin.getMessageUtil().sendMessage(sender, "config-reloaded");
+        // Files are read off this thread, the reply follows once the mines are back
+        plugin.getConfigManager().reload()
+                .thenRun(() -> plugin.getCompositionManager().load()) // Profiles change in place for all their mines
+                .thenCompose(ignored -> plugin.getMineManager().loadMines())
+                .whenComplete((ignored, throwable) -> {
+                    if (throwable != null) {
+                        plugin.getLogger().severe("Reload failed: " + throwable.getMessage());
+                        plugin.getMessageUtil().sendMessage(sender, "reload-failed",
+                                Map.of("error", String.valueOf(throwable.getMessage())));
+                        return;
+                    }
+                    plugin.getMessageUtil().sendMessage(sender, "config-reloaded");
+                });
 
         return true;
     }
@@ -475,6 +946,11 @@ public class AxolotMineCommand implements CommandExecutor, TabCompleter {
         plugin.getMessageUtil().sendMessage(sender, "help-settp");  // NEW
         plugin.getMessageUtil().sendMessage(sender, "help-teleport");
         plugin.getMessageUtil().sendMessage(sender, "help-composition");
+        plugin.getMessageUtil().sendMessage(sender, "help-profile");
+        plugin.getMessageUtil().sendMessage(sender, "help-seed");
+        plugin.getMessageUtil().sendMessage(sender, "help-snapshot");
+        plugin.getMessageUtil().sendMessage(sender, "help-survey");
+        plugin.getMessageUtil().sendMessage(sender, "help-bench");
         plugin.getMessageUtil().sendMessage(sender, "help-reload");
         plugin.getMessageUtil().sendMessage(sender, "help-footer");
 
@@ -500,22 +976,47 @@ public class AxolotMineCommand implements CommandExecutor, TabCompleter {
         if (args.length == 1) {
             completions.addAll(Arrays.asList("create", "reset", "resetall", "delete",
                     "list", "info", "setinterval", "settp", "teleport", "tp",
-                    "composition", "comp", "reload", "help"));
+                    "composition", "comp", "profile", "seed", "snapshot", "survey", "bench", "reload", "help"));
         } else if (args.length == 2) {
             String subCmd = args[0].toLowerCase();
             if (subCmd.equals("reset") || subCmd.equals("delete") || subCmd.equals("info")
                     || subCmd.equals("setinterval") || subCmd.equals("settp")  // NEW
                     || subCmd.equals("teleport") || subCmd.equals("tp")
-                    || subCmd.equals("composition") || subCmd.equals("comp")) {
+                    || subCmd.equals("composition") || subCmd.equals("comp")
+                    || subCmd.equals("seed") || subCmd.equals("snapshot") || subCmd.equals("survey")) {
+                completions.addAll(plugin.getMineManager().getAllMines().stream()
+                        .map(Mine::getName)
+                        .collect(Collectors.toList()));
+            } else if (subCmd.equals("profile")) {
+                completions.add("list");
                 completions.addAll(plugin.getMineManager().getAllMines().stream()
                         .map(Mine::getName)
                         .collect(Collectors.toList()));
             }
         } else if (args.length == 3) {
             if (args[0].equalsIgnoreCase("composition") || args[0].equalsIgnoreCase("comp")) {
-                completions.addAll(Arrays.asList("add", "remove"));
+                completions.addAll(Arrays.asList("add", "remove", "import"));
+            } else if (args[0].equalsIgnoreCase("profile") && !args[1].equalsIgnoreCase("list")) {
+                completions.add("none");
+                completions.addAll(plugin.getCompositionManager().getProfileNames());
+            } else if (args[0].equalsIgnoreCase("seed")) {
+                completions.addAll(Arrays.asList("fixed", "rotating", "random"));
+            } else if (args[0].equalsIgnoreCase("snapshot")) {
+                completions.add("clear");
+            } else if (args[0].equalsIgnoreCase("setinterval")) {
+                completions.add("adaptive");
+                completions.add("schedule");
+            } else if (args[0].equalsIgnoreCase("bench")) {
+                for (ResetBackend backend : ResetBackend.values()) {
+                    completions.add(backend.name().toLowerCase());
+                }
             }
         } else if (args.length == 4) {
+            if (args[0].equalsIgnoreCase("setinterval") && args[2].equalsIgnoreCase("schedule")) {
+                for (String name : plugin.getConfigManager().getNamedSchedules()) {
+                    completions.add("@" + name);
+                }
+            }
             if ((args[0].equalsIgnoreCase("composition") || args[0].equalsIgnoreCase("comp"))
                     && (args[2].equalsIgnoreCase("add") || args[2].equalsIgnoreCase("remove"))) {
                 // Suggest common materials
@@ -0,0 +1,66 @@
+package dev.silentbit.axolotMine.events;
+
+import dev.silentbit.axolotMine.models.Mine;
+import org.bukkit.event.Cancellable;
+import org.bukkit.event.Event;
+import org.bukkit.event.HandlerList;
+
+/**
+ * Called before a mine is reset, before players are moved out of it.
+ * Cancelling it skips the reset; a cancelled scheduled reset waits for the
+ * next interval.
+ */
+public class MinePreResetEvent extends Event implements Cancellable {
+
+    private static final HandlerList HANDLERS = new HandlerList();
+
+    public enum Cause {
+        /** The mine's reset interval elapsed. */
+        SCHEDULE,
+        /** An admin ran /am reset or /am resetall. */
+        COMMAND,
+        /** The first fill of a newly created mine. */
+        CREATE,
+        /** The server owning the mine reset it and this server follows. */
+        REMOTE,
+        /** Another plugin called MineManager.resetMine. */
+        API
+    }
+
+    private final Mine mine;
+    private final Cause cause;
+    private boolean cancelled;
+
+    public MinePreResetEvent(Mine mine, Cause cause, boolean async) {
+        super(async);
+        this.mine = mine;
+        this.cause = cause;
+    }
+
+    public Mine getMine() {
+        return mine;
+    }
+
+    public Cause getCause() {
+        return cause;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    @Override
+    public void setCancelled(boolean cancelled) {
+        this.cancelled = cancelled;
+    }
+
+    @Override
+    public HandlerList getHandlers() {
+        return HANDLERS;
+    }
+
+    public static HandlerList getHandlerList() {
+        return HANDLERS;
+    }
+}
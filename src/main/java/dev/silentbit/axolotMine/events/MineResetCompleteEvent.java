@@ -0,0 +1,40 @@
+package dev.silentbit.axolotMine.events;
+
+import dev.silentbit.axolotMine.models.Mine;
+import dev.silentbit.axolotMine.models.ResetResult;
+import org.bukkit.event.Event;
+import org.bukkit.event.HandlerList;
+
+/**
+ * Called once the last block of a reset has been written, on the thread of
+ * the region that wrote it. Deferred resets of unloaded mines call it when
+ * their last chunk has been written.
+ */
+public class MineResetCompleteEvent extends Event {
+
+    private static final HandlerList HANDLERS = new HandlerList();
+
+    private final ResetResult result;
+
+    public MineResetCompleteEvent(ResetResult result, boolean async) {
+        super(async);
+        this.result = result;
+    }
+
+    public Mine getMine() {
+        return result.getMine();
+    }
+
+    public ResetResult getResult() {
+        return result;
+    }
+
+    @Override
+    public HandlerList getHandlers() {
+        return HANDLERS;
+    }
+
+    public static HandlerList getHandlerList() {
+        return HANDLERS;
+    }
+}
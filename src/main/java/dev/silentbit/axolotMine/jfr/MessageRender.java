@@ -0,0 +1,22 @@
+package dev.silentbit.axolotMine.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event covering the lookup, placeholder replacement and MiniMessage parse of one message.
+ */
+@Name("dev.silentbit.axolotMine.MessageRender")
+@Label("Message Render")
+@Category({"AxolotMine", "Messages"})
+@StackTrace(false)
+public class MessageRender extends jdk.jfr.Event {
+
+    @Label("Key")
+    public String key;
+
+    @Label("Length")
+    public int length;
+}
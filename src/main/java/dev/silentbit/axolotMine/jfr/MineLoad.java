@@ -0,0 +1,25 @@
+package dev.silentbit.axolotMine.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event covering the parse and scheduling of one mine file at load time.
+ */
+@Name("dev.silentbit.axolotMine.MineLoad")
+@Label("Mine Load")
+@Category({"AxolotMine", "Storage"})
+@StackTrace(false)
+public class MineLoad extends jdk.jfr.Event {
+
+    @Label("File")
+    public String file;
+
+    @Label("Mine")
+    public String mine;
+
+    @Label("Loaded")
+    public boolean loaded;
+}
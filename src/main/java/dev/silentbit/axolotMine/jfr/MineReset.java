@@ -0,0 +1,29 @@
+package dev.silentbit.axolotMine.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event covering one full mine reset (teleport + block fill).
+ * The event duration is the time spent on the owning region thread.
+ */
+@Name("dev.silentbit.axolotMine.MineReset")
+@Label("Mine Reset")
+@Category({"AxolotMine", "Mines"})
+@Description("Refill of a mine's blocks on its region thread")
+@StackTrace(false)
+public class MineReset extends jdk.jfr.Event {
+
+    @Label("Mine")
+    public String mine;
+
+    @Label("Blocks")
+    public int blocks;
+
+    @Label("Backend")
+    @Description("Write path used for the fill")
+    public String backend;
+}
@@ -0,0 +1,22 @@
+package dev.silentbit.axolotMine.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event covering the serialization and write of one mine file.
+ */
+@Name("dev.silentbit.axolotMine.MineSave")
+@Label("Mine Save")
+@Category({"AxolotMine", "Storage"})
+@StackTrace(false)
+public class MineSave extends jdk.jfr.Event {
+
+    @Label("Mine")
+    public String mine;
+
+    @Label("Success")
+    public boolean success;
+}
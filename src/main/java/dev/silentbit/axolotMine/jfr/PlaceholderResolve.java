@@ -0,0 +1,22 @@
+package dev.silentbit.axolotMine.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event covering one PlaceholderAPI request against the axolotmine expansion.
+ */
+@Name("dev.silentbit.axolotMine.PlaceholderResolve")
+@Label("Placeholder Resolve")
+@Category({"AxolotMine", "Placeholders"})
+@StackTrace(false)
+public class PlaceholderResolve extends jdk.jfr.Event {
+
+    @Label("Params")
+    public String params;
+
+    @Label("Resolved")
+    public boolean resolved;
+}
@@ -0,0 +1,26 @@
+package dev.silentbit.axolotMine.listeners;
+
+import dev.silentbit.axolotMine.AxolotMine;
+import dev.silentbit.axolotMine.models.Mine;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
+
+public class BlockBreakListener implements Listener {
+
+    private final AxolotMine plugin;
+
+    public BlockBreakListener(AxolotMine plugin) {
+        this.plugin = plugin;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockBreak(BlockBreakEvent event) {
+        // Feeds the break rate that adaptive intervals are derived from
+        Mine mine = plugin.getMineManager().getMineAt(event.getBlock().getLocation());
+        if (mine != null) {
+            mine.recordBreak();
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package dev.silentbit.axolotMine.listeners;
+
+import dev.silentbit.axolotMine.AxolotMine;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.ChunkLoadEvent;
+
+public class ChunkListener implements Listener {
+
+    private final AxolotMine plugin;
+
+    public ChunkListener(AxolotMine plugin) {
+        this.plugin = plugin;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkLoad(ChunkLoadEvent event) {
+        // Apply resets that were deferred while this chunk was unloaded
+        plugin.getPendingResetManager().onChunkLoad(event.getChunk());
+    }
+}
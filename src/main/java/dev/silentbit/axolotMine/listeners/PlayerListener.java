@@ -0,0 +1,57 @@
+package dev.silentbit.axolotMine.listeners;
+
+import dev.silentbit.axolotMine.AxolotMine;
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerTeleportEvent;
+
+public class PlayerListener implements Listener {
+
+    private final AxolotMine plugin;
+
+    public PlayerListener(AxolotMine plugin) {
+        this.plugin = plugin;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onJoin(PlayerJoinEvent event) {
+        plugin.getNearestMineTracker().update(event.getPlayer(), event.getPlayer().getLocation());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onMove(PlayerMoveEvent event) {
+        onMove(event.getPlayer(), event.getFrom(), event.getTo());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onTeleport(PlayerTeleportEvent event) {
+        onMove(event.getPlayer(), event.getFrom(), event.getTo());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChangedWorld(PlayerChangedWorldEvent event) {
+        plugin.getNearestMineTracker().update(event.getPlayer(), event.getPlayer().getLocation());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        plugin.getNearestMineTracker().remove(event.getPlayer().getUniqueId());
+    }
+
+    private void onMove(Player player, Location from, Location to) {
+        // Most moves stay inside a chunk, the nearest mine only changes across chunk borders
+        if (to == null || (from.getWorld() == to.getWorld()
+                && from.getBlockX() >> 4 == to.getBlockX() >> 4
+                && from.getBlockZ() >> 4 == to.getBlockZ() >> 4)) {
+            return;
+        }
+        plugin.getNearestMineTracker().update(player, to);
+    }
+}
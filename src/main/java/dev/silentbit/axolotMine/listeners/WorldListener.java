@@ -0,0 +1,22 @@
+package dev.silentbit.axolotMine.listeners;
+
+import dev.silentbit.axolotMine.AxolotMine;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.WorldLoadEvent;
+
+public class WorldListener implements Listener {
+
+    private final AxolotMine plugin;
+
+    public WorldListener(AxolotMine plugin) {
+        this.plugin = plugin;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldLoad(WorldLoadEvent event) {
+        // Start the mines that were waiting for this world
+        plugin.getMineManager().onWorldLoad(event.getWorld());
+    }
+}
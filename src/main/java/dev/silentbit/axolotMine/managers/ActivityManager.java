@@ -0,0 +1,82 @@
+package dev.silentbit.axolotMine.managers;
+
+import dev.silentbit.axolotMine.AxolotMine;
+import dev.silentbit.axolotMine.models.IntervalMode;
+import dev.silentbit.axolotMine.models.Mine;
+import dev.silentbit.axolotMine.utils.SchedulerFacade;
+
+/**
+ * Measures how fast each mine is being mined and derives the reset interval
+ * of adaptive mines from it. Busy mines reset sooner, idle mines stretch out
+ * towards their maximum interval so they cost no region time.
+ */
+public class ActivityManager {
+
+    private final AxolotMine plugin;
+    private SchedulerFacade.Task sampler;
+
+    public ActivityManager(AxolotMine plugin) {
+        this.plugin = plugin;
+    }
+
+    public void start() {
+        long period = plugin.getConfigManager().getAdaptiveSampleSeconds() * 20L;
+        sampler = plugin.getSchedulerFacade().runGlobalAtFixedRate(this::sample, period, period);
+    }
+
+    public void shutdown() {
+        if (sampler != null) {
+            sampler.cancel();
+            sampler = null;
+        }
+    }
+
+    /**
+     * Folds the breaks counted since the last sample into every mine's smoothed
+     * rate and reschedules adaptive mines whose interval moved noticeably.
+     */
+    private void sample() {
+        ConfigManager config = plugin.getConfigManager();
+        double seconds = config.getAdaptiveSampleSeconds();
+        double smoothing = config.getAdaptiveSmoothing();
+
+        for (Mine mine : plugin.getMineManager().getAllMines()) {
+            double rate = mine.drainBreaks() / seconds;
+            mine.setBreakRate(smoothing * rate + (1 - smoothing) * mine.getBreakRate());
+
+            if (mine.getIntervalMode() != IntervalMode.ADAPTIVE) continue;
+
+            int current = mine.getAdaptiveInterval();
+            int target = computeInterval(mine);
+
+            // Small changes would only reschedule the timer over and over
+            if (Math.abs(target - current) >= Math.max(5, current / 10)) {
+                mine.setAdaptiveInterval(target);
+                plugin.getMineManager().scheduleReset(mine);
+            }
+        }
+    }
+
+    /**
+     * Gets the interval in which the mine's current break rate would clear the
+     * configured share of its blocks, clamped to the mine's bounds.
+     */
+    public int computeInterval(Mine mine) {
+        int min = getMinInterval(mine);
+        int max = Math.max(min, getMaxInterval(mine));
+
+        double rate = mine.getBreakRate();
+        if (rate <= 0) return max;
+
+        double seconds = plugin.getConfigManager().getAdaptiveTargetDepletion() * mine.getBlockCount() / rate;
+        return (int) Math.max(min, Math.min(max, Math.round(seconds)));
+    }
+
+    public int getMinInterval(Mine mine) {
+        return mine.getMinInterval() > 0 ? mine.getMinInterval() : plugin.getConfigManager().getAdaptiveMinInterval();
+    }
+
+    public int getMaxInterval(Mine mine) {
+        return mine.getMaxInterval() > 0 ? mine.getMaxInterval() : plugin.getConfigManager().getAdaptiveMaxInterval();
+    }
+}
@@ -0,0 +1,125 @@
+package dev.silentbit.axolotMine.managers;
+
+import dev.silentbit.axolotMine.AxolotMine;
+import dev.silentbit.axolotMine.models.Mine;
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Loads the chunks of a mine asynchronously and holds plugin chunk tickets on
+ * them while a reset runs, so chunk I/O never happens on the region thread.
+ * Tickets are reference counted because neighbouring mines can share chunks.
+ */
+public class ChunkTicketManager {
+
+    private final AxolotMine plugin;
+    private final Map<String, Integer> ticketCounts;
+
+    public ChunkTicketManager(AxolotMine plugin) {
+        this.plugin = plugin;
+        this.ticketCounts = new HashMap<>();
+    }
+
+    /**
+     * Loads every chunk the mine covers with getChunkAtAsync and tickets each
+     * one as soon as it is loaded. Completes once all chunks are held.
+     */
+    public CompletableFuture<Lease> acquire(Mine mine) {
+        World world = mine.getPos1().getWorld();
+        Lease lease = new Lease(world);
+        if (world == null) {
+            return CompletableFuture.completedFuture(lease);
+        }
+
+        Location pos1 = mine.getPos1();
+        Location pos2 = mine.getPos2();
+        int minChunkX = Math.min(pos1.getBlockX(), pos2.getBlockX()) >> 4;
+        int maxChunkX = Math.max(pos1.getBlockX(), pos2.getBlockX()) >> 4;
+        int minChunkZ = Math.min(pos1.getBlockZ(), pos2.getBlockZ()) >> 4;
+        int maxChunkZ = Math.max(pos1.getBlockZ(), pos2.getBlockZ()) >> 4;
+
+        List<CompletableFuture<?>> loads = new ArrayList<>();
+        for (int cx = minChunkX; cx <= maxChunkX; cx++) {
+            for (int cz = minChunkZ; cz <= maxChunkZ; cz++) {
+                int chunkX = cx;
+                int chunkZ = cz;
+                loads.add(world.getChunkAtAsync(chunkX, chunkZ).thenAccept(chunk -> lease.add(chunkX, chunkZ)));
+            }
+        }
+
+        return CompletableFuture.allOf(loads.toArray(new CompletableFuture[0])).handle((ignored, throwable) -> {
+            if (throwable != null) {
+                lease.release();
+                throw new CompletionException(throwable);
+            }
+            return lease;
+        });
+    }
+
+    private synchronized void addTicket(World world, int chunkX, int chunkZ) {
+        String key = key(world, chunkX, chunkZ);
+        int count = ticketCounts.getOrDefault(key, 0);
+        if (count == 0) {
+            world.addPluginChunkTicket(chunkX, chunkZ, plugin);
+        }
+        ticketCounts.put(key, count + 1);
+    }
+
+    private synchronized void removeTicket(World world, int chunkX, int chunkZ) {
+        String key = key(world, chunkX, chunkZ);
+        int count = ticketCounts.getOrDefault(key, 0);
+        if (count <= 1) {
+            ticketCounts.remove(key);
+            world.removePluginChunkTicket(chunkX, chunkZ, plugin);
+        } else {
+            ticketCounts.put(key, count - 1);
+        }
+    }
+
+    private String key(World world, int chunkX, int chunkZ) {
+        return world.getName() + ":" + chunkX + ":" + chunkZ;
+    }
+
+    /**
+     * The chunk tickets held for one reset. Must be released once the reset is done.
+     */
+    public final class Lease {
+
+        private final World world;
+        private final List<int[]> chunks;
+        private boolean released;
+
+        private Lease(World world) {
+            this.world = world;
+            this.chunks = new ArrayList<>();
+        }
+
+        private synchronized void add(int chunkX, int chunkZ) {
+            if (released) return;
+
+            addTicket(world, chunkX, chunkZ);
+            chunks.add(new int[]{chunkX, chunkZ});
+        }
+
+        public synchronized void release() {
+            if (released) return;
+
+            released = true;
+            for (int[] chunk : chunks) {
+                removeTicket(world, chunk[0], chunk[1]);
+            }
+            chunks.clear();
+        }
+
+        public synchronized int getChunkCount() {
+            return chunks.size();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package dev.silentbit.axolotMine.managers;
+
+import dev.silentbit.axolotMine.AxolotMine;
+import dev.silentbit.axolotMine.models.CompositionProfile;
+import org.bukkit.Material;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds the composition profiles from config.yml. Every mine referencing a
+ * profile holds the same {@link CompositionProfile} instance, so the palette
+ * and sampling table are built once per profile. Reloading updates the
+ * instances in place instead of replacing them, which switches all
+ * referencing mines to the new composition at once.
+ */
+public class CompositionManager {
+
+    private final AxolotMine plugin;
+    private final Map<String, CompositionProfile> profiles;
+    private final Set<String> defined;
+
+    public CompositionManager(AxolotMine plugin) {
+        this.plugin = plugin;
+        this.profiles = new ConcurrentHashMap<>();
+        this.defined = ConcurrentHashMap.newKeySet();
+    }
+
+    /**
+     * Reads the profiles from the current config. Returns the number of
+     * profiles whose composition changed.
+     */
+    public synchronized int load() {
+        Map<String, Map<Material, Double>> configured = plugin.getConfigManager().getCompositionProfiles();
+        int changed = 0;
+
+        for (Map.Entry<String, Map<Material, Double>> entry : configured.entrySet()) {
+            String name = entry.getKey();
+            Map<Material, Double> composition = entry.getValue();
+            if (composition.isEmpty()) {
+                plugin.getLogger().warning("Composition profile " + name + " is empty, using stone");
+                composition = Map.of(Material.STONE, 100.0);
+            }
+
+            CompositionProfile profile = profiles.get(name);
+            if (profile == null) {
+                profiles.put(name, new CompositionProfile(name, composition));
+            } else if (profile.setComposition(composition)) {
+                changed++;
+            }
+        }
+
+        // Mines may still reference a removed profile, it keeps its last composition
+        for (String name : profiles.keySet()) {
+            if (!configured.containsKey(name) && defined.contains(name)) {
+                plugin.getLogger().warning("Composition profile " + name + " was removed from the config, " +
+                        "mines using it keep its last composition");
+            }
+        }
+
+        defined.clear();
+        defined.addAll(configured.keySet());
+        return changed;
+    }
+
+    public CompositionProfile getProfile(String name) {
+        return defined.contains(name.toLowerCase()) ? profiles.get(name.toLowerCase()) : null;
+    }
+
+    /**
+     * Returns the profile a mine file references. A profile missing from the
+     * config is created with the mine's own composition, or stone, so the mine
+     * still loads and follows the profile once it is defined.
+     */
+    public CompositionProfile resolve(String name, String mineName, Map<Material, Double> fallback) {
+        String key = name.toLowerCase();
+        CompositionProfile profile = profiles.get(key);
+        if (profile != null) return profile;
+
+        plugin.getLogger().warning("Mine " + mineName + " uses unknown composition profile " + name);
+        return profiles.computeIfAbsent(key, ignored ->
+                new CompositionProfile(key, fallback.isEmpty() ? Map.of(Material.STONE, 100.0) : fallback));
+    }
+
+    /**
+     * Names of the profiles defined in the config.
+     */
+    public Set<String> getProfileNames() {
+        return new TreeSet<>(defined);
+    }
+}
@@ -1,16 +1,26 @@
 package dev.silentbit.axolotMine.managers;
 
 import dev.silentbit.axolotMine.AxolotMine;
+import dev.silentbit.axolotMine.models.ResetBackend;
+import dev.silentbit.axolotMine.models.SeedPolicy;
+import org.bukkit.Material;
+import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
 
 import java.io.File;
+import java.time.DateTimeException;
+import java.time.ZoneId;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 public class ConfigManager {
 
     private final AxolotMine plugin;
-    private FileConfiguration config;
-    private FileConfiguration messages;
+    private volatile FileConfiguration config;
+    private volatile FileConfiguration messages;
 
     public ConfigManager(AxolotMine plugin) {
         this.plugin = plugin;
@@ -19,6 +29,7 @@ public class ConfigManager {
     public void loadConfigs() {
         // Load config.yml
         plugin.saveDefaultConfig();
+        plugin.reloadConfig();
         config = plugin.getConfig();
 
         // Load messages.yml
@@ -29,6 +40,13 @@ public class ConfigManager {
         messages = YamlConfiguration.loadConfiguration(messagesFile);
     }
 
+    /**
+     * Reloads both files on the I/O executor, readers keep the old values until it is done.
+     */
+    public CompletableFuture<Void> reload() {
+        return CompletableFuture.runAsync(this::loadConfigs, plugin.getIoExecutor());
+    }
+
     public FileConfiguration getConfig() {
         return config;
     }
@@ -37,7 +55,228 @@ public class ConfigManager {
         return messages;
     }
 
+    /**
+     * Reads the profiles section: profile name (lower case) to composition.
+     * Unknown materials are skipped with a warning.
+     */
+    public Map<String, Map<Material, Double>> getCompositionProfiles() {
+        Map<String, Map<Material, Double>> profiles = new LinkedHashMap<>();
+        ConfigurationSection section = config.getConfigurationSection("profiles");
+        if (section == null) return profiles;
+
+        for (String name : section.getKeys(false)) {
+            ConfigurationSection profileSection = section.getConfigurationSection(name);
+            if (profileSection == null) continue;
+
+            Map<Material, Double> composition = new LinkedHashMap<>();
+            for (String key : profileSection.getKeys(false)) {
+                Material material = Material.matchMaterial(key);
+                if (material == null || !material.isBlock()) {
+                    plugin.getLogger().warning("Invalid material in profile " + name + ": " + key);
+                    continue;
+                }
+                composition.put(material, profileSection.getDouble(key));
+            }
+            profiles.put(name.toLowerCase(), composition);
+        }
+        return profiles;
+    }
+
     public int getDefaultResetInterval() {
         return config.getInt("default-reset-interval", 600);
     }
+
+    public SeedPolicy getDefaultSeedPolicy() {
+        return SeedPolicy.fromString(config.getString("default-seed-policy"), SeedPolicy.RANDOM);
+    }
+
+    public ResetBackend getResetBackend() {
+        return ResetBackend.fromString(config.getString("reset.backend"), ResetBackend.BUKKIT);
+    }
+
+    public boolean isChunkResync() {
+        return config.getString("reset.client-resync", "vanilla").equalsIgnoreCase("chunk");
+    }
+
+    public boolean isLazyUnloadedResets() {
+        return config.getBoolean("reset.lazy-unloaded", true);
+    }
+
+    public boolean isThrottleEnabled() {
+        return config.getBoolean("reset.throttle.enabled", true);
+    }
+
+    public double getThrottleMsptTarget() {
+        return Math.max(1.0, config.getDouble("reset.throttle.mspt-target", 50.0));
+    }
+
+    public int getThrottleBlocksPerTick() {
+        return Math.max(1, config.getInt("reset.throttle.blocks-per-tick", 32768));
+    }
+
+    public int getThrottleMaxSliceMillis() {
+        return Math.max(1, config.getInt("reset.throttle.max-slice-millis", 15));
+    }
+
+    public int getThrottleMaxDelaySeconds() {
+        return Math.max(0, config.getInt("reset.throttle.max-delay-seconds", 30));
+    }
+
+    public boolean isBatchResets() {
+        return config.getBoolean("reset.batch.enabled", true);
+    }
+
+    public long getBatchWindowMillis() {
+        return Math.max(0L, config.getLong("reset.batch.window-millis", 2000L));
+    }
+
+    public int getBatchMaxBlocks() {
+        return Math.max(1, config.getInt("reset.batch.max-blocks", 262144));
+    }
+
+    public boolean isLazyWorldLoading() {
+        return config.getBoolean("worlds.lazy-load", true);
+    }
+
+    public String getBenchWorld() {
+        return config.getString("bench.world", "world");
+    }
+
+    public String getBenchOrigin() {
+        return config.getString("bench.origin", "0,200,0");
+    }
+
+    public int getBenchRuns() {
+        return Math.max(1, config.getInt("bench.runs", 5));
+    }
+
+    public int getBenchWarmup() {
+        return Math.max(0, config.getInt("bench.warmup", 1));
+    }
+
+    public int getBenchMaxSize() {
+        return Math.max(1, config.getInt("bench.max-size", 64));
+    }
+
+    public int getIoThreads() {
+        return Math.max(1, config.getInt("io.platform-threads", 4));
+    }
+
+    public boolean isWarningsEnabled() {
+        return config.getBoolean("warnings.enabled", true);
+    }
+
+    public int getWarningSeconds() {
+        return Math.max(1, config.getInt("warnings.seconds", 30));
+    }
+
+    public int getWarningRadius() {
+        return Math.max(0, config.getInt("warnings.radius", 16));
+    }
+
+    public String getWarningDisplay() {
+        return config.getString("warnings.display", "bossbar").toLowerCase();
+    }
+
+    public int getAdaptiveMinInterval() {
+        return Math.max(30, config.getInt("adaptive.min-interval", 120));
+    }
+
+    public int getAdaptiveMaxInterval() {
+        return config.getInt("adaptive.max-interval", 3600);
+    }
+
+    public double getAdaptiveTargetDepletion() {
+        return Math.max(0.01, Math.min(1.0, config.getDouble("adaptive.target-depletion", 0.5)));
+    }
+
+    public double getAdaptiveSmoothing() {
+        return Math.max(0.01, Math.min(1.0, config.getDouble("adaptive.smoothing", 0.3)));
+    }
+
+    public int getAdaptiveSampleSeconds() {
+        return Math.max(1, config.getInt("adaptive.sample-seconds", 15));
+    }
+
+    public ZoneId getScheduleZone() {
+        String zone = config.getString("schedules.timezone", "");
+        if (zone == null || zone.isEmpty()) return ZoneId.systemDefault();
+
+        try {
+            return ZoneId.of(zone);
+        } catch (DateTimeException e) {
+            plugin.getLogger().warning("Invalid schedule timezone: " + zone);
+            return ZoneId.systemDefault();
+        }
+    }
+
+    public long getScheduleMaxInFlightBlocks() {
+        return Math.max(1L, config.getLong("schedules.max-in-flight-blocks", 131072L));
+    }
+
+    public String getNamedSchedule(String name) {
+        return config.getString("schedules.named." + name);
+    }
+
+    public Set<String> getNamedSchedules() {
+        ConfigurationSection section = config.getConfigurationSection("schedules.named");
+        return section != null ? section.getKeys(false) : Set.of();
+    }
+
+    public int getLayoutThreads() {
+        int threads = config.getInt("layout.threads", 0);
+        return threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    }
+
+    public int getLayoutOffHeapThreshold() {
+        return config.getInt("layout.off-heap-threshold", 262144);
+    }
+
+    public String getStateBackend() {
+        return config.getString("state.backend", "local").toLowerCase();
+    }
+
+    public String getServerId() {
+        return config.getString("state.server-id", "");
+    }
+
+    public String getRedisHost() {
+        return config.getString("state.redis.host", "127.0.0.1");
+    }
+
+    public int getRedisPort() {
+        return config.getInt("state.redis.port", 6379);
+    }
+
+    public String getRedisPassword() {
+        return config.getString("state.redis.password", "");
+    }
+
+    public int getRedisDatabase() {
+        return config.getInt("state.redis.database", 0);
+    }
+
+    public String getRedisNamespace() {
+        return config.getString("state.redis.namespace", "axolotmine");
+    }
+
+    public long getOwnerLeaseMillis() {
+        return Math.max(3, config.getInt("state.owner-lease-seconds", 30)) * 1000L;
+    }
+
+    public boolean isMetricsEnabled() {
+        return config.getBoolean("metrics.enabled", false);
+    }
+
+    public String getMetricsHost() {
+        return config.getString("metrics.host", "127.0.0.1");
+    }
+
+    public int getMetricsPort() {
+        return config.getInt("metrics.port", 9464);
+    }
+
+    public long getJournalFlushMillis() {
+        return Math.max(10, config.getLong("journal.flush-millis", 200));
+    }
 }
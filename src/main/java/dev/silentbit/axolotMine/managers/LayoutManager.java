@@ -0,0 +1,176 @@
+package dev.silentbit.axolotMine.managers;
+
+import dev.silentbit.axolotMine.AxolotMine;
+import dev.silentbit.axolotMine.models.CompositionProfile;
+import dev.silentbit.axolotMine.models.Mine;
+import dev.silentbit.axolotMine.models.MineLayout;
+import dev.silentbit.axolotMine.models.ResetMode;
+import dev.silentbit.axolotMine.models.SeedPolicy;
+import dev.silentbit.axolotMine.utils.RandomUtil;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates the next reset layout of every mine on a worker pool, so the
+ * region thread only copies prepared data into the world when a reset runs.
+ */
+public class LayoutManager {
+
+    private final AxolotMine plugin;
+    private final ExecutorService workers;
+    private final Map<String, CompletableFuture<MineLayout>> prepared;
+
+    public LayoutManager(AxolotMine plugin) {
+        this.plugin = plugin;
+        this.prepared = new ConcurrentHashMap<>();
+
+        AtomicInteger threadId = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(plugin.getConfigManager().getLayoutThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "AxolotMine-Layout-" + threadId.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts generating the next layout for a mine in the background,
+     * replacing any layout that was prepared earlier.
+     */
+    public void prepare(Mine mine) {
+        // Restore resets copy their snapshot, there is nothing to sample, only map it ahead
+        if (mine.getResetMode() == ResetMode.RESTORE) {
+            discard(mine.getName());
+            plugin.getSnapshotManager().prepare(mine);
+            return;
+        }
+
+        CompletableFuture<MineLayout> future = generateAsync(mine);
+        CompletableFuture<MineLayout> previous = prepared.put(mine.getName(), future);
+        if (previous != null) {
+            previous.cancel(false);
+        }
+
+        future.exceptionally(throwable -> {
+            if (!(throwable instanceof CancellationException)) {
+                plugin.getLogger().warning("Failed to prepare layout for mine '" + mine.getName() + "': " +
+                        throwable.getMessage());
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Takes the prepared layout for a mine if it is finished and still matches
+     * the mine. Returns null when the caller has to generate one inline.
+     */
+    public MineLayout take(Mine mine) {
+        CompletableFuture<MineLayout> future = prepared.remove(mine.getName());
+        if (future == null) {
+            return null;
+        }
+
+        if (!future.isDone() || future.isCompletedExceptionally()) {
+            future.cancel(false);
+            return null;
+        }
+
+        MineLayout layout = future.join();
+        return isUsable(layout, mine) ? layout : null;
+    }
+
+    /**
+     * Takes the prepared layout for a mine, waiting for it if it is still being
+     * generated, or generates a new one off-thread if it is missing or stale.
+     */
+    public CompletableFuture<MineLayout> takeAsync(Mine mine) {
+        CompletableFuture<MineLayout> future = prepared.remove(mine.getName());
+        if (future == null || future.isCancelled() || future.isCompletedExceptionally()) {
+            return generateAsync(mine);
+        }
+
+        return future.handle((layout, throwable) -> throwable == null && isUsable(layout, mine)
+                ? CompletableFuture.completedFuture(layout)
+                : generateAsync(mine)).thenCompose(next -> next);
+    }
+
+    /**
+     * Generates a layout on the calling thread.
+     */
+    public MineLayout generate(Mine mine) {
+        // Palette and sampling table are shared by every layout of the composition
+        CompositionProfile.Sampler sampler = mine.getSampler();
+        MineLayout layout = allocate(mine, sampler, mine.getNextSeed());
+        for (MineLayout.Section section : layout.getSections()) {
+            fill(layout, section, sampler.getSlots());
+        }
+        return layout;
+    }
+
+    public void discard(String mineName) {
+        CompletableFuture<MineLayout> future = prepared.remove(mineName);
+        if (future != null) {
+            future.cancel(false);
+        }
+    }
+
+    public void shutdown() {
+        for (CompletableFuture<MineLayout> future : prepared.values()) {
+            future.cancel(false);
+        }
+        prepared.clear();
+        workers.shutdownNow();
+    }
+
+    private CompletableFuture<MineLayout> generateAsync(Mine mine) {
+        CompositionProfile.Sampler sampler = mine.getSampler();
+        long seed = mine.getNextSeed();
+
+        return CompletableFuture.supplyAsync(() -> allocate(mine, sampler, seed), workers).thenCompose(layout -> {
+            int[] slots = sampler.getSlots();
+
+            // Sections never share storage and each has its own random stream,
+            // so they can be filled in parallel and still give the same result
+            CompletableFuture<?>[] fills = layout.getSections().stream()
+                    .map(section -> CompletableFuture.runAsync(() -> fill(layout, section, slots), workers))
+                    .toArray(CompletableFuture[]::new);
+
+            return CompletableFuture.allOf(fills).thenApply(ignored -> layout);
+        });
+    }
+
+    private boolean isUsable(MineLayout layout, Mine mine) {
+        if (layout == null || !layout.matches(mine)) {
+            return false;
+        }
+
+        // A deterministic policy must produce exactly the seed this reset expects
+        return mine.getSeedPolicy() == SeedPolicy.RANDOM || layout.getSeed() == mine.getNextSeed();
+    }
+
+    private MineLayout allocate(Mine mine, CompositionProfile.Sampler sampler, long seed) {
+        boolean offHeap = mine.getBlockCount() >= plugin.getConfigManager().getLayoutOffHeapThreshold();
+        return MineLayout.allocate(mine, sampler.getPalette(), sampler.getComposition(), seed, offHeap);
+    }
+
+    private void fill(MineLayout layout, MineLayout.Section section, int[] slots) {
+        int bits = section.getBits();
+        if (bits == 0) return;
+
+        SplittableRandom random = RandomUtil.forSection(layout.getSeed(),
+                section.getChunkX(), section.getSectionY(), section.getChunkZ());
+        int perLong = 64 / bits;
+        int remaining = section.getVolume();
+
+        for (int i = 0; i < section.getLongCount(); i++) {
+            long word = 0L;
+            int entries = Math.min(perLong, remaining);
+            for (int j = 0; j < entries; j++) {
+                word |= (long) slots[random.nextInt(slots.length)] << (j * bits);
+            }
+            layout.putLong(section, i, word);
+            remaining -= entries;
+        }
+    }
+}
@@ -1,31 +1,62 @@
 package dev.silentbit.axolotMine.managers;
 
 import dev.silentbit.axolotMine.AxolotMine;
+import dev.silentbit.axolotMine.events.MinePreResetEvent;
+import dev.silentbit.axolotMine.events.MineResetCompleteEvent;
+import dev.silentbit.axolotMine.jfr.MineLoad;
+import dev.silentbit.axolotMine.jfr.MineSave;
+import dev.silentbit.axolotMine.models.CompositionProfile;
+import dev.silentbit.axolotMine.models.IntervalMode;
 import dev.silentbit.axolotMine.models.Mine;
+import dev.silentbit.axolotMine.models.ResetMode;
+import dev.silentbit.axolotMine.models.ResetResult;
+import dev.silentbit.axolotMine.models.SeedPolicy;
+import dev.silentbit.axolotMine.state.MineStateStore;
+import dev.silentbit.axolotMine.tasks.BatchResetTask;
 import dev.silentbit.axolotMine.tasks.MineResetTask;
 import dev.silentbit.axolotMine.utils.ConfigUtil;
-import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import dev.silentbit.axolotMine.utils.SchedulerFacade;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.World;
 import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.InvalidConfigurationException;
 import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.event.Event;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
-public class MineManager {
+public class MineManager implements MineStateStore.Listener {
 
     private final AxolotMine plugin;
     private final Map<String, Mine> mines;
-    private final Map<String, ScheduledTask> resetTasks;
+    private final Map<String, Mine> unresolved; // Mines waiting for their world to load
+    private final Map<String, SchedulerFacade.Task> resetTasks;
+    private final Map<String, CompletableFuture<Void>> writes; // Last queued file write per mine
+    private final Map<String, Long> remoteResets; // Last owner reset written here, per mine
+    private final Map<String, CompletableFuture<ResetResult>> running; // Resets still being written
+    private volatile Map<String, Map<Long, Mine[]>> chunkIndex; // world -> chunk -> mines covering it
     private final File minesFolder;
 
     public MineManager(AxolotMine plugin) {
         this.plugin = plugin;
         this.mines = new ConcurrentHashMap<>();
+        this.unresolved = new ConcurrentHashMap<>();
         this.resetTasks = new ConcurrentHashMap<>();
+        this.writes = new ConcurrentHashMap<>();
+        this.remoteResets = new ConcurrentHashMap<>();
+        this.running = new ConcurrentHashMap<>();
+        this.chunkIndex = Map.of();
         this.minesFolder = new File(plugin.getDataFolder(), "mines");
 
         if (!minesFolder.exists()) {
@@ -33,34 +64,196 @@ public class MineManager {
         }
     }
 
-    public void loadMines() {
+    /**
+     * Reads every mine file on the I/O executor and replays the journal there,
+     * then swaps the loaded mines in and schedules them on the global region.
+     */
+    public CompletableFuture<Void> loadMines() {
+        Executor io = plugin.getIoExecutor();
+
+        // Writes still in flight would be read back half done
+        return CompletableFuture.allOf(writes.values().toArray(new CompletableFuture[0]))
+                .handle((ignored, throwable) -> null)
+                .thenApplyAsync(ignored -> minesFolder.listFiles((dir, name) -> name.endsWith(".yml")), io)
+                .thenCompose(files -> {
+                    List<CompletableFuture<Mine>> reads = new ArrayList<>();
+                    for (File file : files != null ? files : new File[0]) {
+                        reads.add(CompletableFuture.supplyAsync(() -> readMine(file), io));
+                    }
+
+                    return CompletableFuture.allOf(reads.toArray(new CompletableFuture[0])).thenApplyAsync(ignored -> {
+                        Map<String, Mine> loaded = new HashMap<>();
+                        for (CompletableFuture<Mine> read : reads) {
+                            Mine mine = read.join();
+                            if (mine != null) {
+                                loaded.put(mine.getName(), mine);
+                            }
+                        }
+
+                        // Resets after the last compaction only made it into the journal,
+                        // mines waiting for their world keep theirs for when it loads
+                        int replayed = plugin.getResetJournal().replay(loaded);
+                        if (replayed > 0) {
+                            plugin.getLogger().info("Replayed " + replayed + " journal record(s)");
+                        }
+                        return loaded.values();
+                    }, io);
+                })
+                .thenCompose(loaded -> {
+                    CompletableFuture<Void> applied = new CompletableFuture<>();
+                    runGlobal(() -> {
+                        try {
+                            applyLoaded(loaded);
+                            applied.complete(null);
+                        } catch (RuntimeException e) {
+                            applied.completeExceptionally(e);
+                        }
+                    });
+                    return applied;
+                });
+    }
+
+    private Mine readMine(File file) {
+        MineLoad event = new MineLoad();
+        event.begin();
+        Mine mine = null;
+
+        try {
+            YamlConfiguration config = YamlConfiguration.loadConfiguration(file);
+            mine = loadMineFromConfig(config);
+        } catch (Exception e) {
+            plugin.getLogger().severe("Failed to load mine from " + file.getName() + ": " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.file = file.getName();
+            event.mine = mine != null ? mine.getName() : null;
+            event.loaded = mine != null;
+            event.commit();
+        }
+        return mine;
+    }
+
+    private void applyLoaded(Collection<Mine> loaded) {
         mines.clear();
+        unresolved.clear();
+        plugin.getPendingResetManager().clear();
 
-        File[] files = minesFolder.listFiles((dir, name) -> name.endsWith(".yml"));
-        if (files == null || files.length == 0) {
+        if (loaded.isEmpty()) {
+            reindex();
+            plugin.getNearestMineTracker().invalidate();
             plugin.getLogger().info("No mines found to load.");
+            startSchedules();
             return;
         }
 
-        int loaded = 0;
-        for (File file : files) {
-            try {
-                YamlConfiguration config = YamlConfiguration.loadConfiguration(file);
-                Mine mine = loadMineFromConfig(config);
-
-                if (mine != null) {
-                    mines.put(mine.getName(), mine);
-                    scheduleReset(mine);
-                    loaded++;
-                    plugin.getLogger().info("Loaded mine: " + mine.getName());
+        int count = 0;
+        for (Mine mine : loaded) {
+            if (!mine.hasWorld()) {
+                // The world may have loaded after the file was read, its WorldLoadEvent
+                // found no waiting mines then
+                World world = plugin.getServer().getWorld(mine.getWorldName());
+                if (world != null) {
+                    mine.bindWorld(world);
                 }
-            } catch (Exception e) {
-                plugin.getLogger().severe("Failed to load mine from " + file.getName() + ": " + e.getMessage());
-                e.printStackTrace();
+            }
+            if (!mine.hasWorld()) {
+                unresolved.put(mine.getName(), mine);
+                plugin.getLogger().info("Mine '" + mine.getName() + "' waits for world '" + mine.getWorldName() + "' to load");
+                continue;
+            }
+
+            mines.put(mine.getName(), mine);
+            plugin.getLayoutManager().prepare(mine);
+            count++;
+            plugin.getLogger().info("Loaded mine: " + mine.getName());
+        }
+
+        reindex();
+        plugin.getNearestMineTracker().invalidate();
+        plugin.getLogger().info("Loaded " + count + " mine(s) successfully!");
+
+        for (Mine mine : mines.values()) {
+            if (mine.isResetPending()) {
+                // The chunks may have been loaded by something else while the plugin was off
+                plugin.getPendingResetManager().markPending(mine);
             }
         }
 
-        plugin.getLogger().info("Loaded " + loaded + " mine(s) successfully!");
+        startSchedules();
+
+        WorldsHandler worlds = plugin.getWorldsHandler();
+        if (worlds != null && !unresolved.isEmpty() && !plugin.getConfigManager().isLazyWorldLoading()) {
+            Set<String> worldNames = new HashSet<>();
+            for (Mine mine : unresolved.values()) {
+                worldNames.add(mine.getWorldName());
+            }
+            worlds.loadWorlds(worldNames);
+        }
+    }
+
+    /**
+     * Activates the mines that were waiting for this world.
+     */
+    public void onWorldLoad(World world) {
+        List<Mine> bound = new ArrayList<>();
+        for (Mine mine : unresolved.values()) {
+            if (mine.getWorldName().equals(world.getName()) && unresolved.remove(mine.getName(), mine)) {
+                mine.bindWorld(world);
+                mines.put(mine.getName(), mine);
+                plugin.getLayoutManager().prepare(mine);
+                bound.add(mine);
+            }
+        }
+
+        if (bound.isEmpty()) return;
+        reindex();
+        plugin.getNearestMineTracker().invalidate();
+        plugin.getLogger().info("World '" + world.getName() + "' loaded, activated " + bound.size() + " mine(s)");
+
+        // The new mines need an owner before their timers may reset them
+        plugin.getStateStore().refreshOwnership().whenComplete((ignored, throwable) -> runGlobal(() -> {
+            for (Mine mine : bound) {
+                if (mines.get(mine.getName()) != mine) continue; // Deleted or replaced meanwhile
+
+                if (mine.isResetPending()) {
+                    plugin.getPendingResetManager().markPending(mine);
+                }
+                scheduleReset(mine);
+            }
+        }));
+    }
+
+    /**
+     * Loads the world of a mine waiting for it. Returns false if the mine is
+     * not waiting or worlds cannot be loaded at runtime (Folia).
+     */
+    public boolean requestWorld(String mineName) {
+        Mine mine = unresolved.get(mineName);
+        WorldsHandler worlds = plugin.getWorldsHandler();
+        if (mine == null || worlds == null) return false;
+
+        worlds.loadWorld(mine.getWorldName());
+        return true;
+    }
+
+    /**
+     * Gets a mine whose world is not loaded yet, or null.
+     */
+    public Mine getUnresolvedMine(String name) {
+        return unresolved.get(name);
+    }
+
+    private void startSchedules() {
+        // Only the owning server resets overdue mines, so the timers start once ownership is known
+        plugin.getStateStore().refreshOwnership().whenComplete((ignored, throwable) -> runGlobal(() -> {
+            for (Mine mine : mines.values()) {
+                scheduleReset(mine);
+            }
+            syncWithStore();
+        }));
     }
 
     private Mine loadMineFromConfig(YamlConfiguration config) {
@@ -76,11 +269,8 @@ public class MineManager {
             return null;
         }
 
+        // Null while the world is not loaded, the mine is bound to it later
         World world = plugin.getServer().getWorld(worldName);
-        if (world == null) {
-            plugin.getLogger().warning("World " + worldName + " not found for mine " + name);
-            return null;
-        }
 
         // Load positions
         String pos1Str = config.getString("region.pos1");
@@ -129,18 +319,54 @@ public class MineManager {
             }
         }
 
-        if (composition.isEmpty()) {
+        // Mines on a shared profile only store its name
+        String profileName = config.getString("composition-profile");
+        CompositionProfile profile = null;
+        if (profileName != null && !profileName.isEmpty()) {
+            profile = plugin.getCompositionManager().resolve(profileName, name, composition);
+        } else if (composition.isEmpty()) {
             plugin.getLogger().warning("Mine " + name + " has no composition! Using defaults.");
             composition.put(Material.STONE, 100.0);
         }
 
         // Create mine object
-        Mine mine = new Mine(name, worldName, pos1, pos2, resetInterval, composition);
+        Mine mine = new Mine(name, worldName, pos1, pos2, resetInterval, profile != null ? profile.getComposition() : composition);
+        if (profile != null) {
+            mine.setProfile(profile);
+        }
 
         // IMPORTANT: Load last reset time from config
         long lastReset = config.getLong("last-reset", System.currentTimeMillis());
         mine.setLastReset(lastReset);
 
+        mine.setResetMode(ResetMode.fromString(config.getString("reset-mode"), ResetMode.RANDOM));
+
+        // Load adaptive interval settings (bounds of 0 fall back to the config defaults)
+        mine.setIntervalMode(IntervalMode.fromString(config.getString("interval-mode"), IntervalMode.FIXED));
+        String schedule = config.getString("schedule");
+        if (schedule != null && !schedule.isEmpty()) {
+            try {
+                mine.setSchedule(plugin.getResetWindowManager().parse(schedule));
+            } catch (IllegalArgumentException e) {
+                plugin.getLogger().warning("Invalid schedule in mine " + name + ": " + e.getMessage());
+            }
+        }
+        if (mine.getIntervalMode() == IntervalMode.SCHEDULE && mine.getSchedule() == null) {
+            mine.setIntervalMode(IntervalMode.FIXED);
+        }
+        mine.setIntervalBounds(config.getInt("adaptive.min-interval", 0), config.getInt("adaptive.max-interval", 0));
+        mine.setBreakRate(config.getDouble("adaptive.break-rate", 0));
+        mine.setAdaptiveInterval(config.getInt("adaptive.interval", resetInterval));
+
+        // Load seed settings (older mines keep the random seed from the constructor)
+        mine.setSeedPolicy(SeedPolicy.fromString(config.getString("seed.policy"),
+                plugin.getConfigManager().getDefaultSeedPolicy()));
+        if (config.contains("seed.value")) {
+            mine.setSeed(config.getLong("seed.value"));
+        }
+        mine.setResetCount(config.getLong("seed.reset-count", 0));
+        mine.setResetPending(config.getBoolean("reset-pending", false));
+
         // Load spawn point if it exists
         if (config.contains("spawn-point")) {
             String spawnStr = config.getString("spawn-point");
@@ -155,161 +381,682 @@ public class MineManager {
         return mine;
     }
 
-    public void saveMine(Mine mine) {
+    /**
+     * Serializes the mine on the calling thread and writes the file on the I/O
+     * executor. Writes of the same mine happen in the order they were requested.
+     */
+    public CompletableFuture<Void> saveMine(Mine mine) {
         File file = new File(minesFolder, mine.getName() + ".yml");
         YamlConfiguration config = new YamlConfiguration();
+        writeDefinition(config, mine);
+
+        // Save adaptive interval state so a restart keeps the learned rate
+        config.set("adaptive.break-rate", mine.getBreakRate());
+        config.set("adaptive.interval", mine.getAdaptiveInterval());
 
+        // IMPORTANT: Save last reset timestamp
+        config.set("last-reset", mine.getLastReset());
+        config.set("reset-pending", mine.isResetPending());
+        config.set("seed.reset-count", mine.getResetCount());
+        String text = config.saveToString();
+
+        // Share the definition with other servers, unchanged ones are not resent
+        plugin.getStateStore().publishDefinition(mine.getName(), buildDefinition(mine));
+
+        return write(mine.getName(), () -> {
+            MineSave event = new MineSave();
+            event.begin();
+            long start = System.nanoTime();
+
+            boolean success = true;
+            try {
+                // Write next to the file and swap it in, so a crash never leaves half a file behind
+                File temp = new File(minesFolder, mine.getName() + ".yml.tmp");
+                Files.writeString(temp.toPath(), text, StandardCharsets.UTF_8);
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                success = false;
+                plugin.getLogger().severe("Failed to save mine " + mine.getName() + ": " + e.getMessage());
+                throw e;
+            } finally {
+                plugin.getPluginMetrics().recordSave(System.nanoTime() - start, success);
+
+                event.end();
+                if (event.shouldCommit()) {
+                    event.mine = mine.getName();
+                    event.success = success;
+                    event.commit();
+                }
+            }
+        });
+    }
+
+    /**
+     * Queues file work for a mine on the I/O executor behind the mine's earlier
+     * writes, whether those succeeded or not.
+     */
+    private CompletableFuture<Void> write(String mineName, IoTask task) {
+        CompletableFuture<Void> future = writes.compute(mineName, (name, previous) ->
+                (previous != null ? previous.handle((result, throwable) -> (Void) null) : CompletableFuture.<Void>completedFuture(null))
+                        .thenRunAsync(() -> {
+                            try {
+                                task.run();
+                            } catch (IOException e) {
+                                throw new CompletionException(e);
+                            }
+                        }, plugin.getIoExecutor()));
+
+        future.whenComplete((result, throwable) -> writes.remove(mineName, future));
+        return future;
+    }
+
+    /**
+     * Writes the settings that define a mine, without any runtime state.
+     * Keys are written in a fixed order so equal mines give equal text.
+     */
+    private void writeDefinition(YamlConfiguration config, Mine mine) {
         config.set("name", mine.getName());
         config.set("region.world", mine.getWorldName());
         config.set("region.pos1", ConfigUtil.locationToString(mine.getPos1()));
         config.set("region.pos2", ConfigUtil.locationToString(mine.getPos2()));
         config.set("reset-interval", mine.getResetInterval());
+        config.set("reset-mode", mine.getResetMode().name());
+        config.set("interval-mode", mine.getIntervalMode().name());
+        config.set("adaptive.min-interval", mine.getMinInterval());
+        config.set("adaptive.max-interval", mine.getMaxInterval());
+        if (mine.getSchedule() != null) {
+            config.set("schedule", mine.getSchedule().getSource());
+        }
 
-        // IMPORTANT: Save last reset timestamp
-        config.set("last-reset", mine.getLastReset());
+        // Save seed settings
+        config.set("seed.policy", mine.getSeedPolicy().name());
+        config.set("seed.value", mine.getSeed());
 
         // Save spawn point if set
         if (mine.hasSpawnPoint()) {
             config.set("spawn-point", ConfigUtil.locationToFullString(mine.getSpawnPoint()));
         }
 
-        // Save composition
-        ConfigurationSection compSection = config.createSection("composition");
-        for (Map.Entry<Material, Double> entry : mine.getComposition().entrySet()) {
-            compSection.set(entry.getKey().name(), entry.getValue());
+        // Save composition, or only the name of the shared profile
+        if (mine.getProfile().isShared()) {
+            config.set("composition-profile", mine.getProfile().getName());
+        } else {
+            ConfigurationSection compSection = config.createSection("composition");
+            Map<String, Double> sorted = new TreeMap<>();
+            for (Map.Entry<Material, Double> entry : mine.getComposition().entrySet()) {
+                sorted.put(entry.getKey().name(), entry.getValue());
+            }
+            for (Map.Entry<String, Double> entry : sorted.entrySet()) {
+                compSection.set(entry.getKey(), entry.getValue());
+            }
         }
+    }
 
-        try {
-            config.save(file);
-        } catch (Exception e) {
-            plugin.getLogger().severe("Failed to save mine " + mine.getName() + ": " + e.getMessage());
-            e.printStackTrace();
-        }
+    private String buildDefinition(Mine mine) {
+        YamlConfiguration config = new YamlConfiguration();
+        writeDefinition(config, mine);
+        return config.saveToString();
     }
 
     public void createMine(String name, Location pos1, Location pos2, Map<Material, Double> composition) {
         int resetInterval = plugin.getConfigManager().getDefaultResetInterval();
         Mine mine = new Mine(name, pos1.getWorld().getName(), pos1, pos2, resetInterval, composition);
+        mine.setSeedPolicy(plugin.getConfigManager().getDefaultSeedPolicy());
 
         mines.put(name, mine);
         saveMine(mine);
+        reindex();
+        plugin.getNearestMineTracker().invalidate();
 
         // Initial fill
-        resetMine(mine, false);
+        resetMine(mine, false, MinePreResetEvent.Cause.CREATE);
 
         // Schedule automatic resets
         scheduleReset(mine);
     }
 
-    public void resetMine(Mine mine, boolean async) {
-        MineResetTask task = new MineResetTask(plugin, mine);
+    /**
+     * Resets a mine. The future completes once the last block has been written,
+     * or right away when a {@link MinePreResetEvent} listener cancelled the reset.
+     * While a reset of the mine is still being written, that reset's future is
+     * returned instead of starting a second one on the same blocks.
+     *
+     * A mine whose chunks are all unloaded completes at once with
+     * {@link ResetResult.Status#DEFERRED}; a {@link MineResetCompleteEvent}
+     * follows when its blocks are written as the chunks load.
+     */
+    public CompletableFuture<ResetResult> resetMine(Mine mine, boolean async) {
+        return resetMine(mine, async, MinePreResetEvent.Cause.API);
+    }
+
+    public CompletableFuture<ResetResult> resetMine(Mine mine, boolean async, MinePreResetEvent.Cause cause) {
+        CompletableFuture<ResetResult> inFlight = running.get(mine.getName());
+        if (inFlight != null) return inFlight;
+
+        if (!callPreReset(mine, cause)) {
+            return CompletableFuture.completedFuture(ResetResult.cancelled(mine));
+        }
+        return startReset(mine, async, cause != MinePreResetEvent.Cause.REMOTE);
+    }
+
+    private CompletableFuture<ResetResult> startReset(Mine mine, boolean async, boolean publish) {
+        MineResetTask task;
+        CompletableFuture<ResetResult> completion;
+        synchronized (mine) {
+            // Another caller may have started one since the listeners were asked
+            CompletableFuture<ResetResult> inFlight = running.get(mine.getName());
+            if (inFlight != null) return inFlight;
+
+            // Async resets may spread their writes over several ticks
+            task = newResetTask(mine, async);
+            completion = track(task, publish);
+        }
 
         if (async) {
-            // Use region scheduler for Folia-safe execution
-            Location center = mine.getPos1().clone().add(mine.getPos2()).multiply(0.5);
-            plugin.getServer().getRegionScheduler().run(plugin, center, scheduledTask -> {
-                task.run();
+            // Load the covered chunks off the region thread and hold them until the last write
+            plugin.getChunkTicketManager().acquire(mine).whenComplete((lease, throwable) -> {
+                if (throwable != null) {
+                    plugin.getLogger().severe("Failed to load chunks for mine " + mine.getName() + ": " +
+                            throwable.getMessage());
+                    task.getCompletion().completeExceptionally(throwable);
+                    return;
+                }
+
+                // Run on the region owning the mine
+                Location center = mine.getPos1().clone().add(mine.getPos2()).multiply(0.5);
+                task.getCompletion().whenComplete((result, error) -> lease.release());
+                plugin.getSchedulerFacade().runRegion(center, task);
             });
         } else {
             task.run();
         }
 
-        // Update last reset time and save
-        mine.setLastReset(System.currentTimeMillis());
-        saveMine(mine);
+        return completion;
+    }
+
+    private MineResetTask newResetTask(Mine mine, boolean throttled) {
+        // A full reset supersedes a deferred one
+        plugin.getPendingResetManager().cancel(mine.getName());
+
+        long startedAt = System.currentTimeMillis();
+        mine.beginReset(startedAt);
+        return new MineResetTask(plugin, mine, throttled, startedAt);
+    }
+
+    /**
+     * Publishes the reset once its last block is written.
+     */
+    private CompletableFuture<ResetResult> track(MineResetTask task, boolean publish) {
+        Mine mine = task.getMine();
+        running.put(mine.getName(), task.getCompletion());
+        return task.getCompletion().whenComplete((result, throwable) -> {
+            running.remove(mine.getName(), task.getCompletion());
+            if (throwable != null) {
+                mine.abortReset();
+                return;
+            }
+
+            // Only a finished reset counts, the journal makes it durable without rewriting the file
+            mine.completeReset(result.getStartedAt());
+            plugin.getResetJournal().recordReset(mine);
+
+            if (publish) {
+                plugin.getStateStore().publishReset(mine.getName(), mine.getLastReset());
+            }
+            callEvent(new MineResetCompleteEvent(result, !plugin.getServer().isPrimaryThread()));
+        });
+    }
+
+    private boolean callPreReset(Mine mine, MinePreResetEvent.Cause cause) {
+        MinePreResetEvent event = new MinePreResetEvent(mine, cause, !plugin.getServer().isPrimaryThread());
+        callEvent(event);
+        return !event.isCancelled();
+    }
+
+    private void cancelSchedule(String mineName) {
+        remoteResets.remove(mineName);
+        SchedulerFacade.Task task = resetTasks.remove(mineName);
+        if (task != null) {
+            task.cancel();
+        }
+        plugin.getResetWindowManager().remove(mineName);
+    }
+
+    private void callEvent(Event event) {
+        plugin.getServer().getPluginManager().callEvent(event);
     }
 
     public void scheduleReset(Mine mine) {
         // Cancel existing task if any
-        ScheduledTask existingTask = resetTasks.get(mine.getName());
+        SchedulerFacade.Task existingTask = resetTasks.remove(mine.getName());
         if (existingTask != null) {
             existingTask.cancel();
         }
 
+        // Wall-clock schedules share the window pipeline instead of a timer per mine
+        if (mine.getIntervalMode() == IntervalMode.SCHEDULE && mine.getSchedule() != null) {
+            plugin.getResetWindowManager().enqueue(mine);
+            plugin.getResetWarningManager().track(mine);
+            return;
+        }
+        plugin.getResetWindowManager().remove(mine.getName());
+
         // Calculate time until next reset
-        long currentTime = System.currentTimeMillis();
-        long timeSinceLastReset = currentTime - mine.getLastReset();
-        long resetIntervalMs = mine.getResetInterval() * 1000L;
-        long timeUntilNextReset = resetIntervalMs - timeSinceLastReset;
+        // Timed from the start of a running reset, not from when it finishes
+        long timeUntilNextReset = mine.getNextReset() - System.currentTimeMillis();
 
         // If reset time has already passed (server was offline), reset immediately
         if (timeUntilNextReset <= 0) {
             plugin.getLogger().info("Mine '" + mine.getName() + "' was due for reset during downtime. Resetting now...");
-            resetMine(mine, true);
+            triggerReset(mine);
 
             // Schedule the next reset after this one
             scheduleReset(mine);
             return;
         }
 
-        // Schedule reset at the calculated time
-        Location center = mine.getPos1().clone().add(mine.getPos2()).multiply(0.5);
-
         // Convert milliseconds to ticks (1 second = 20 ticks)
-        long delayTicks = timeUntilNextReset / 50; // 50ms per tick
+        long delayTicks = Math.max(1, timeUntilNextReset / 50); // 50ms per tick
 
-        ScheduledTask task = plugin.getServer().getRegionScheduler().runDelayed(
-                plugin,
-                center,
-                scheduledTask -> {
-                    resetMine(mine, false);
+        // The timer runs on the global region so it does not depend on the mine's chunks being loaded
+        SchedulerFacade.Task task = plugin.getSchedulerFacade().runGlobalDelayed(
+                () -> {
+                    triggerReset(mine);
                     scheduleReset(mine); // Reschedule for next reset
                 },
                 delayTicks
         );
 
         resetTasks.put(mine.getName(), task);
+        plugin.getResetWarningManager().track(mine);
 
         plugin.getLogger().info("Scheduled reset for mine '" + mine.getName() + "' in " +
                 (timeUntilNextReset / 1000) + " seconds");
     }
 
+    /**
+     * Runs a scheduled reset. Mines nobody can see are only marked pending and
+     * written when their chunks load again.
+     */
+    private CompletableFuture<Void> triggerReset(Mine mine) {
+        if (!plugin.getStateStore().isOwner(mine.getName())) {
+            // Another server runs this schedule and its reset arrives through the state store.
+            // The timer keeps running in case ownership moves here, but moving lastReset
+            // must not hide the owner's reset, which is compared against remoteResets
+            remoteResets.putIfAbsent(mine.getName(), mine.getLastReset());
+            mine.setLastReset(System.currentTimeMillis());
+            return CompletableFuture.completedFuture(null);
+        }
+
+        // A mine still being written joins no batch, performReset hands back that reset
+        if (plugin.getConfigManager().isBatchResets() && !isDeferred(mine) && !mine.isResetting()) {
+            List<Mine> batch = collectBatch(mine);
+            if (batch.size() > 1) {
+                return resetBatch(mine, batch);
+            }
+        }
+
+        CompletableFuture<ResetResult> reset = performReset(mine, MinePreResetEvent.Cause.SCHEDULE);
+        ResetResult result = reset.getNow(null);
+        if (result != null && result.getStatus() == ResetResult.Status.CANCELLED) {
+            // Skipped, the next one is a full interval away
+            mine.setLastReset(System.currentTimeMillis());
+        }
+        return reset.thenApply(ignored -> null);
+    }
+
+    /**
+     * Runs the reset of a scheduled mine whose window opened and schedules its
+     * next one. Completes once the blocks are written.
+     */
+    public CompletableFuture<Void> runScheduledReset(Mine mine) {
+        CompletableFuture<Void> reset = triggerReset(mine);
+        scheduleReset(mine);
+        return reset;
+    }
+
+    /**
+     * Finds the mines due within the batch window that share chunks with this
+     * one, directly or through another mine of the batch.
+     */
+    private List<Mine> collectBatch(Mine mine) {
+        long horizon = System.currentTimeMillis() + plugin.getConfigManager().getBatchWindowMillis();
+        List<Mine> candidates = new ArrayList<>();
+        for (Mine other : mines.values()) {
+            if (other == mine || !other.getWorldName().equals(mine.getWorldName())) continue;
+            if (other.isResetting() || other.getNextReset() > horizon) continue;
+            if (!plugin.getStateStore().isOwner(other.getName()) || isDeferred(other)) continue;
+
+            candidates.add(other);
+        }
+
+        List<Mine> batch = new ArrayList<>();
+        batch.add(mine);
+        long blocks = mine.getBlockCount();
+        int maxBlocks = plugin.getConfigManager().getBatchMaxBlocks();
+
+        for (int i = 0; i < batch.size() && !candidates.isEmpty(); i++) {
+            Iterator<Mine> iterator = candidates.iterator();
+            while (iterator.hasNext()) {
+                Mine other = iterator.next();
+                if (batch.get(i).sharesChunkWith(other) && blocks + other.getBlockCount() <= maxBlocks) {
+                    batch.add(other);
+                    blocks += other.getBlockCount();
+                    iterator.remove();
+                }
+            }
+        }
+        return batch;
+    }
+
+    private CompletableFuture<Void> resetBatch(Mine trigger, List<Mine> batch) {
+        List<MineResetTask> tasks = new ArrayList<>();
+        List<CompletableFuture<ResetResult>> resets = new ArrayList<>();
+        for (Mine mine : batch) {
+            if (callPreReset(mine, MinePreResetEvent.Cause.SCHEDULE)) {
+                // The batch holds every chunk until the last write, so its chunk jobs may be throttled
+                MineResetTask task = newResetTask(mine, true);
+                resets.add(track(task, true));
+                tasks.add(task);
+            } else {
+                mine.setLastReset(System.currentTimeMillis());
+            }
+
+            // Mines that joined early are timed from this reset, the trigger is rescheduled by its caller
+            if (mine != trigger) {
+                scheduleReset(mine);
+            }
+        }
+
+        if (!tasks.isEmpty()) {
+            plugin.getLogger().info("Resetting " + tasks.size() + " mines that share chunks together");
+            new BatchResetTask(plugin, tasks).start();
+        }
+        return CompletableFuture.allOf(resets.toArray(new CompletableFuture[0]));
+    }
+
+    private boolean isDeferred(Mine mine) {
+        return plugin.getConfigManager().isLazyUnloadedResets() && plugin.getPendingResetManager().isUnloaded(mine);
+    }
+
+    private CompletableFuture<ResetResult> performReset(Mine mine, MinePreResetEvent.Cause cause) {
+        if (isDeferred(mine)) {
+            if (!callPreReset(mine, cause)) {
+                return CompletableFuture.completedFuture(ResetResult.cancelled(mine));
+            }
+
+            plugin.getPendingResetManager().markPending(mine);
+            mine.setLastReset(System.currentTimeMillis());
+            plugin.getResetJournal().recordReset(mine);
+            if (cause != MinePreResetEvent.Cause.REMOTE) {
+                plugin.getStateStore().publishReset(mine.getName(), mine.getLastReset());
+            }
+            return CompletableFuture.completedFuture(ResetResult.deferred(mine, mine.getLastReset()));
+        }
+
+        return resetMine(mine, true, cause); // Preloads chunks before writing
+    }
+
     public void deleteMine(String name) {
+        deleteMine(name, true);
+    }
+
+    private void deleteMine(String name, boolean publish) {
         Mine mine = mines.remove(name);
+        if (mine == null) {
+            mine = unresolved.remove(name);
+        }
         if (mine != null) {
-            ScheduledTask task = resetTasks.remove(name);
-            if (task != null) {
-                task.cancel();
+            if (publish) {
+                plugin.getStateStore().removeDefinition(name);
             }
+            plugin.getResetJournal().recordDelete(name);
+            plugin.getPendingResetManager().cancel(name);
+            plugin.getResetWarningManager().untrack(name);
+            reindex();
+            plugin.getNearestMineTracker().invalidate();
+            cancelSchedule(name);
+            plugin.getLayoutManager().discard(name);
+            plugin.getSnapshotManager().delete(name);
 
             File file = new File(minesFolder, name + ".yml");
-            if (file.exists()) {
-                file.delete();
+            write(name, () -> Files.deleteIfExists(file.toPath()));
+        }
+    }
+
+    @Override
+    public void onInvalidate(String mineName, MineStateStore.Change change) {
+        MineStateStore store = plugin.getStateStore();
+        switch (change) {
+            case RESET:
+                store.getLastReset(mineName).thenAccept(timestamp ->
+                        runGlobal(() -> applyRemoteReset(mineName, timestamp)));
+                break;
+            case DEFINITION:
+                store.getDefinition(mineName).thenAccept(definition ->
+                        runGlobal(() -> applyRemoteDefinition(mineName, definition)));
+                break;
+            case REMOVED:
+                runGlobal(() -> {
+                    if (mines.containsKey(mineName) || unresolved.containsKey(mineName)) {
+                        deleteMine(mineName, false);
+                        plugin.getLogger().info("Mine '" + mineName + "' was deleted on another server");
+                    }
+                });
+                break;
+        }
+    }
+
+    @Override
+    public Collection<String> getLocalMines() {
+        return new ArrayList<>(mines.keySet());
+    }
+
+    /**
+     * Brings the loaded mines in line with the state store: shared definitions
+     * and newer resets win, mines the store does not know yet are published.
+     */
+    private void syncWithStore() {
+        MineStateStore store = plugin.getStateStore();
+        store.getMineNames().whenComplete((names, throwable) -> {
+            if (throwable != null) {
+                plugin.getLogger().warning("Failed to read shared mine state: " + throwable.getMessage());
+                return;
             }
+
+            runGlobal(() -> {
+                for (String mineName : names) {
+                    onInvalidate(mineName, MineStateStore.Change.DEFINITION);
+                    onInvalidate(mineName, MineStateStore.Change.RESET);
+                }
+
+                for (Mine mine : mines.values()) {
+                    if (!names.contains(mine.getName())) {
+                        store.publishDefinition(mine.getName(), buildDefinition(mine));
+                        store.publishReset(mine.getName(), mine.getLastReset());
+                    }
+                }
+            });
+        });
+    }
+
+    private void applyRemoteReset(String mineName, long timestamp) {
+        Mine mine = mines.get(mineName);
+        if (mine == null || timestamp <= remoteResets.getOrDefault(mineName, mine.getLastReset())) return;
+
+        remoteResets.put(mineName, timestamp);
+        plugin.getLogger().info("Mine '" + mineName + "' was reset by its owning server");
+        performReset(mine, MinePreResetEvent.Cause.REMOTE);
+        mine.setLastReset(timestamp);
+        plugin.getResetJournal().recordReset(mine);
+        scheduleReset(mine);
+    }
+
+    private void applyRemoteDefinition(String mineName, String definition) {
+        if (definition == null) return;
+
+        Mine existing = mines.get(mineName);
+        if (existing == null) {
+            existing = unresolved.get(mineName);
         }
+        if (existing != null && buildDefinition(existing).equals(definition)) return;
+
+        YamlConfiguration config = new YamlConfiguration();
+        try {
+            config.loadFromString(definition);
+        } catch (InvalidConfigurationException e) {
+            plugin.getLogger().warning("Invalid shared definition for mine " + mineName + ": " + e.getMessage());
+            return;
+        }
+
+        Mine mine = loadMineFromConfig(config);
+        if (mine == null) return;
+
+        if (existing != null) {
+            // Runtime state stays local
+            plugin.getPendingResetManager().cancel(mineName);
+            mine.setLastReset(existing.getLastReset());
+            mine.setResetCount(existing.getResetCount());
+            mine.setBreakRate(existing.getBreakRate());
+            mine.setAdaptiveInterval(existing.getAdaptiveInterval());
+        }
+
+        if (!mine.hasWorld()) {
+            // Moved to a world that is not loaded here, wait for it
+            if (mines.remove(mineName) != null) {
+                plugin.getResetWarningManager().untrack(mineName);
+                reindex();
+                plugin.getNearestMineTracker().invalidate();
+                cancelSchedule(mineName);
+            }
+            unresolved.put(mineName, mine);
+            saveMine(mine);
+            return;
+        }
+
+        unresolved.remove(mineName);
+        mines.put(mineName, mine);
+        saveMine(mine);
+        reindex();
+        plugin.getNearestMineTracker().invalidate();
+        plugin.getLayoutManager().prepare(mine);
+        scheduleReset(mine);
+        plugin.getLogger().info("Mine '" + mineName + "' was " + (existing != null ? "updated" : "created") + " on another server");
+    }
+
+    private void runGlobal(Runnable runnable) {
+        plugin.getSchedulerFacade().runGlobal(runnable);
     }
 
     public Mine getMine(String name) {
         return mines.get(name);
     }
 
+    /**
+     * Gets the mine containing a block location, or null.
+     */
+    public Mine getMineAt(Location location) {
+        World world = location.getWorld();
+        if (world == null) return null;
+
+        Map<Long, Mine[]> chunks = chunkIndex.get(world.getName());
+        if (chunks == null) return null;
+
+        Mine[] candidates = chunks.get(chunkKey(location.getBlockX() >> 4, location.getBlockZ() >> 4));
+        if (candidates == null) return null;
+
+        for (Mine mine : candidates) {
+            if (mine.contains(location)) {
+                return mine;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Rebuilds the chunk index behind {@link #getMineAt} after mines were
+     * added, removed or replaced. Readers keep using the previous index until
+     * the new one is complete, so block breaks never wait on this.
+     */
+    private synchronized void reindex() {
+        Map<String, Map<Long, List<Mine>>> building = new HashMap<>();
+        for (Mine mine : mines.values()) {
+            Map<Long, List<Mine>> chunks = building.computeIfAbsent(mine.getWorldName(), name -> new HashMap<>());
+            Location pos1 = mine.getPos1();
+            Location pos2 = mine.getPos2();
+            for (int cx = Math.min(pos1.getBlockX(), pos2.getBlockX()) >> 4; cx <= Math.max(pos1.getBlockX(), pos2.getBlockX()) >> 4; cx++) {
+                for (int cz = Math.min(pos1.getBlockZ(), pos2.getBlockZ()) >> 4; cz <= Math.max(pos1.getBlockZ(), pos2.getBlockZ()) >> 4; cz++) {
+                    chunks.computeIfAbsent(chunkKey(cx, cz), key -> new ArrayList<>(1)).add(mine);
+                }
+            }
+        }
+
+        Map<String, Map<Long, Mine[]>> index = new HashMap<>();
+        for (Map.Entry<String, Map<Long, List<Mine>>> world : building.entrySet()) {
+            Map<Long, Mine[]> chunks = new HashMap<>();
+            for (Map.Entry<Long, List<Mine>> chunk : world.getValue().entrySet()) {
+                chunks.put(chunk.getKey(), chunk.getValue().toArray(new Mine[0]));
+            }
+            index.put(world.getKey(), chunks);
+        }
+        chunkIndex = index;
+    }
+
+    private static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
     public Collection<Mine> getAllMines() {
         return new ArrayList<>(mines.values());
     }
 
     public boolean mineExists(String name) {
-        return mines.containsKey(name);
+        return mines.containsKey(name) || unresolved.containsKey(name);
     }
 
-    public void resetAllMines() {
+    public CompletableFuture<Void> resetAllMines() {
+        List<CompletableFuture<ResetResult>> resets = new ArrayList<>();
         for (Mine mine : mines.values()) {
-            resetMine(mine, true);
+            resets.add(resetMine(mine, true, MinePreResetEvent.Cause.COMMAND));
         }
+        return CompletableFuture.allOf(resets.toArray(new CompletableFuture[0]));
+    }
+
+    /**
+     * Saves every mine file and drops the journal records they now contain.
+     */
+    public CompletableFuture<Void> saveAll() {
+        return plugin.getResetJournal().compact(() -> {
+            List<CompletableFuture<Void>> saves = new ArrayList<>();
+            for (Mine mine : mines.values()) {
+                saves.add(saveMine(mine));
+            }
+            for (Mine mine : unresolved.values()) {
+                saves.add(saveMine(mine));
+            }
+            return CompletableFuture.allOf(saves.toArray(new CompletableFuture[0]));
+        });
     }
 
     public void shutdown() {
         // Save all mines before shutdown
         plugin.getLogger().info("Saving all mines...");
-        for (Mine mine : mines.values()) {
-            saveMine(mine);
+        try {
+            saveAll().get(30, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            plugin.getLogger().severe("Failed to save all mines before shutdown: " + e.getMessage());
         }
 
         // Cancel all scheduled tasks
-        for (ScheduledTask task : resetTasks.values()) {
+        for (SchedulerFacade.Task task : resetTasks.values()) {
             task.cancel();
         }
         resetTasks.clear();
 
         plugin.getLogger().info("All mines saved and tasks cancelled!");
     }
+
+    private interface IoTask {
+        void run() throws IOException;
+    }
 }
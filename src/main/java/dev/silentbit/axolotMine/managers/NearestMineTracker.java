@@ -0,0 +1,126 @@
+package dev.silentbit.axolotMine.managers;
+
+import dev.silentbit.axolotMine.AxolotMine;
+import dev.silentbit.axolotMine.models.Mine;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Remembers the mine nearest to every online player.
+ *
+ * The nearest mine only changes noticeably once a player moves into another
+ * chunk, so it is recomputed on chunk borders and world changes instead of on
+ * every read. Closest-mine placeholders then only read the cached entry.
+ * Creating, deleting or moving a mine drops all entries, they are filled again
+ * on the next move or read. Every entry carries the generation of the mines it
+ * was computed from, so one computed from the old mines and stored after the
+ * drop is never served.
+ */
+public class NearestMineTracker {
+
+    private final AxolotMine plugin;
+    private final Map<UUID, Nearest> nearest;
+    private final AtomicLong generation;
+
+    public NearestMineTracker(AxolotMine plugin) {
+        this.plugin = plugin;
+        this.nearest = new ConcurrentHashMap<>();
+        this.generation = new AtomicLong();
+    }
+
+    /**
+     * Returns the mine nearest to the player, computing it if the player has
+     * no entry yet.
+     */
+    public Nearest get(Player player) {
+        Nearest cached = nearest.get(player.getUniqueId());
+        if (cached != null && cached.generation == generation.get()) return cached;
+
+        Nearest found = find(player.getLocation());
+        nearest.put(player.getUniqueId(), found);
+        return found;
+    }
+
+    public void update(Player player, Location location) {
+        nearest.put(player.getUniqueId(), find(location));
+    }
+
+    public void remove(UUID playerId) {
+        nearest.remove(playerId);
+    }
+
+    /**
+     * Drops every entry after the set of mines or their positions changed.
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+        nearest.clear();
+    }
+
+    private Nearest find(Location location) {
+        // Read before the mines, a concurrent invalidate then outdates the result
+        long generation = this.generation.get();
+
+        World world = location.getWorld();
+        if (world == null) return new Nearest(null, -1, generation);
+
+        String worldName = world.getName();
+        double x = location.getX();
+        double y = location.getY();
+        double z = location.getZ();
+
+        Mine closest = null;
+        double closestSquared = Double.MAX_VALUE;
+        for (Mine mine : plugin.getMineManager().getAllMines()) {
+            if (!mine.getWorldName().equals(worldName)) continue;
+
+            Location pos1 = mine.getPos1();
+            Location pos2 = mine.getPos2();
+            double dx = (pos1.getX() + pos2.getX()) * 0.5 - x;
+            double dy = (pos1.getY() + pos2.getY()) * 0.5 - y;
+            double dz = (pos1.getZ() + pos2.getZ()) * 0.5 - z;
+            double squared = dx * dx + dy * dy + dz * dz;
+            if (squared < closestSquared) {
+                closest = mine;
+                closestSquared = squared;
+            }
+        }
+
+        return closest != null ? new Nearest(closest, Math.sqrt(closestSquared), generation)
+                : new Nearest(null, -1, generation);
+    }
+
+    /**
+     * The nearest mine and the distance to its center, as of the player's last
+     * chunk or world change.
+     */
+    public static final class Nearest {
+
+        private final Mine mine;
+        private final double distance;
+        private final long generation;
+
+        private Nearest(Mine mine, double distance, long generation) {
+            this.mine = mine;
+            this.distance = distance;
+            this.generation = generation;
+        }
+
+        /**
+         * @return the mine, or null if there is none in the player's world
+         */
+        public Mine getMine() {
+            return mine;
+        }
+
+        public double getDistance() {
+            return distance;
+        }
+    }
+}
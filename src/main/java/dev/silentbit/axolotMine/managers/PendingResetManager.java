@@ -0,0 +1,227 @@
+package dev.silentbit.axolotMine.managers;
+
+import dev.silentbit.axolotMine.AxolotMine;
+import dev.silentbit.axolotMine.events.MineResetCompleteEvent;
+import dev.silentbit.axolotMine.models.Mine;
+import dev.silentbit.axolotMine.models.MineLayout;
+import dev.silentbit.axolotMine.models.ResetMode;
+import dev.silentbit.axolotMine.models.ResetResult;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Defers the resets of mines whose chunks are all unloaded. The reset layout
+ * is kept and written chunk by chunk when each chunk is loaded again, so idle
+ * mines never load chunks just to rewrite blocks nobody can see.
+ */
+public class PendingResetManager {
+
+    private final AxolotMine plugin;
+    private final Map<String, PendingReset> pending;
+    private final Map<String, Map<Long, Set<String>>> byChunk; // world -> chunk -> mine names
+
+    public PendingResetManager(AxolotMine plugin) {
+        this.plugin = plugin;
+        this.pending = new ConcurrentHashMap<>();
+        this.byChunk = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Checks whether none of the chunks covered by the mine are loaded.
+     */
+    public boolean isUnloaded(Mine mine) {
+        World world = mine.getPos1().getWorld();
+        if (world == null) return true;
+
+        Location pos1 = mine.getPos1();
+        Location pos2 = mine.getPos2();
+        for (int cx = Math.min(pos1.getBlockX(), pos2.getBlockX()) >> 4; cx <= Math.max(pos1.getBlockX(), pos2.getBlockX()) >> 4; cx++) {
+            for (int cz = Math.min(pos1.getBlockZ(), pos2.getBlockZ()) >> 4; cz <= Math.max(pos1.getBlockZ(), pos2.getBlockZ()) >> 4; cz++) {
+                if (world.isChunkLoaded(cx, cz)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Marks a mine as reset pending. Its next layout is taken now and applied
+     * to each chunk the next time that chunk loads.
+     */
+    public void markPending(Mine mine) {
+        cancel(mine.getName());
+        mine.setResetPending(true);
+        plugin.getResetJournal().recordPending(mine);
+
+        CompletableFuture<MineLayout> layoutFuture;
+        if (mine.getResetMode() == ResetMode.RESTORE) {
+            layoutFuture = plugin.getSnapshotManager().prepare(mine).thenCompose(snapshot -> snapshot != null
+                    ? CompletableFuture.completedFuture(snapshot)
+                    : plugin.getLayoutManager().takeAsync(mine));
+        } else {
+            layoutFuture = plugin.getLayoutManager().takeAsync(mine);
+        }
+
+        layoutFuture.whenComplete((layout, throwable) -> {
+            if (throwable != null || layout == null) {
+                plugin.getLogger().warning("Failed to prepare pending reset for mine '" + mine.getName() + "'");
+                return;
+            }
+
+            if (!mine.isResetPending() || plugin.getMineManager().getMine(mine.getName()) != mine) {
+                return; // A full reset happened or the mines were reloaded in the meantime
+            }
+
+            PendingReset reset = new PendingReset(mine, layout);
+            pending.put(mine.getName(), reset);
+
+            World world = mine.getPos1().getWorld();
+            Map<Long, Set<String>> chunks = byChunk.computeIfAbsent(mine.getWorldName(), name -> new ConcurrentHashMap<>());
+            for (long chunk : reset.remaining) {
+                chunks.computeIfAbsent(chunk, key -> ConcurrentHashMap.newKeySet()).add(mine.getName());
+            }
+
+            // Chunks that loaded while the layout was being prepared will not fire another load
+            if (world != null) {
+                for (long chunk : reset.remaining) {
+                    if (world.isChunkLoaded(chunkX(chunk), chunkZ(chunk))) {
+                        schedule(reset, world, chunkX(chunk), chunkZ(chunk));
+                    }
+                }
+            }
+
+            // The layout has been consumed, seed the one after it
+            mine.incrementResetCount();
+            plugin.getLayoutManager().prepare(mine);
+        });
+
+        plugin.getLogger().info("Mine '" + mine.getName() + "' is unloaded, reset deferred until its chunks load");
+    }
+
+    /**
+     * Applies pending resets to a chunk that just loaded.
+     */
+    public void onChunkLoad(Chunk chunk) {
+        World world = chunk.getWorld();
+        Map<Long, Set<String>> chunks = byChunk.get(world.getName());
+        if (chunks == null) return;
+
+        Set<String> mineNames = chunks.get(key(chunk.getX(), chunk.getZ()));
+        if (mineNames == null) return;
+
+        for (String mineName : mineNames) {
+            PendingReset reset = pending.get(mineName);
+            if (reset != null) {
+                schedule(reset, world, chunk.getX(), chunk.getZ());
+            }
+        }
+    }
+
+    public void cancel(String mineName) {
+        PendingReset reset = pending.remove(mineName);
+        if (reset != null) {
+            reset.mine.setResetPending(false);
+            plugin.getResetJournal().recordPending(reset.mine);
+            unindex(reset);
+        }
+    }
+
+    /**
+     * Forgets every pending reset without journaling, the mines are about to be
+     * replaced by freshly loaded ones that mark themselves pending again.
+     */
+    public void clear() {
+        pending.clear();
+        byChunk.clear();
+    }
+
+    public boolean isPending(String mineName) {
+        return pending.containsKey(mineName);
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    private void schedule(PendingReset reset, World world, int chunkX, int chunkZ) {
+        // Write on the next tick of the chunk's region rather than inside the load event
+        plugin.getSchedulerFacade().runRegion(world, chunkX, chunkZ, () -> {
+            if (pending.get(reset.mine.getName()) != reset || !reset.remaining.remove(key(chunkX, chunkZ))) {
+                return; // Cancelled, replaced or already written
+            }
+
+            for (MineLayout.Section section : reset.layout.getSections()) {
+                if (section.getChunkX() == chunkX && section.getChunkZ() == chunkZ) {
+                    reset.layout.forEachBlock(section,
+                            (x, y, z, data) -> world.getBlockAt(x, y, z).setBlockData(data, false));
+                }
+            }
+
+            unindex(reset, key(chunkX, chunkZ));
+
+            if (reset.remaining.isEmpty() && pending.remove(reset.mine.getName(), reset)) {
+                reset.mine.setResetPending(false);
+                reset.mine.setPlacedBlocks(reset.layout.getPlacedCounts());
+                plugin.getResetJournal().recordPending(reset.mine);
+                plugin.getLogger().info("Pending reset of mine '" + reset.mine.getName() + "' applied");
+
+                ResetResult result = ResetResult.completed(reset.mine, reset.startedAt, reset.layout.getBlockCount(), 0);
+                plugin.getServer().getPluginManager().callEvent(
+                        new MineResetCompleteEvent(result, !plugin.getServer().isPrimaryThread()));
+            }
+        });
+    }
+
+    private void unindex(PendingReset reset) {
+        for (long chunk : reset.remaining) {
+            unindex(reset, chunk);
+        }
+    }
+
+    private void unindex(PendingReset reset, long chunk) {
+        Map<Long, Set<String>> chunks = byChunk.get(reset.mine.getWorldName());
+        if (chunks == null) return;
+
+        chunks.computeIfPresent(chunk, (key, mineNames) -> {
+            mineNames.remove(reset.mine.getName());
+            return mineNames.isEmpty() ? null : mineNames;
+        });
+    }
+
+    private static long key(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    private static int chunkX(long key) {
+        return (int) (key >> 32);
+    }
+
+    private static int chunkZ(long key) {
+        return (int) key;
+    }
+
+    private static final class PendingReset {
+
+        private final Mine mine;
+        private final MineLayout layout;
+        private final long startedAt;
+        private final Set<Long> remaining;
+
+        private PendingReset(Mine mine, MineLayout layout) {
+            this.mine = mine;
+            this.layout = layout;
+            this.startedAt = System.currentTimeMillis();
+            this.remaining = ConcurrentHashMap.newKeySet();
+            for (MineLayout.Section section : layout.getSections()) {
+                remaining.add(key(section.getChunkX(), section.getChunkZ()));
+            }
+        }
+    }
+}
@@ -0,0 +1,328 @@
+package dev.silentbit.axolotMine.managers;
+
+import dev.silentbit.axolotMine.AxolotMine;
+import dev.silentbit.axolotMine.models.Mine;
+import dev.silentbit.axolotMine.utils.SchedulerFacade;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of reset state, so a reset does not have to rewrite the
+ * mine's YAML file to be durable.
+ *
+ * Records are buffered in memory and written plus fsync'd in batches by an
+ * async task. On startup the journal is replayed on top of the YAML files;
+ * a compaction starts a new journal file, saves every mine and then drops the
+ * old file. A record is {@code [int length][payload][int crc32]}, and replay
+ * stops at the first torn or corrupt record.
+ *
+ * Only state that changes on every reset is journaled. Admin edits such as
+ * the interval, seed, profile or composition are rare and saved to the YAML
+ * file right away, so they gain nothing from the journal.
+ */
+public class ResetJournal {
+
+    private static final byte RESET = 1;
+    private static final byte PENDING = 2;
+    private static final byte DELETE = 3;
+
+    private final AxolotMine plugin;
+    private final File journalFolder;
+    private final Object writeLock = new Object();
+
+    private ByteArrayOutputStream buffer;
+    private FileChannel channel;
+    private long generation;
+    private SchedulerFacade.Task flusher;
+
+    public ResetJournal(AxolotMine plugin) {
+        this.plugin = plugin;
+        this.journalFolder = new File(plugin.getDataFolder(), "journal");
+        this.buffer = new ByteArrayOutputStream();
+
+        if (!journalFolder.exists()) {
+            journalFolder.mkdirs();
+        }
+    }
+
+    /**
+     * Opens a new journal file after the existing ones and starts the batch flusher.
+     */
+    public void start() throws IOException {
+        List<Long> generations = listGenerations();
+        generation = generations.isEmpty() ? 1 : generations.get(generations.size() - 1) + 1;
+        channel = open(generation);
+
+        long period = plugin.getConfigManager().getJournalFlushMillis();
+        flusher = plugin.getSchedulerFacade().runAsyncAtFixedRate(this::flush,
+                period, period, TimeUnit.MILLISECONDS);
+    }
+
+    public void shutdown() {
+        if (flusher != null) {
+            flusher.cancel();
+            flusher = null;
+        }
+
+        flush();
+        synchronized (writeLock) {
+            closeChannel();
+        }
+    }
+
+    public void recordReset(Mine mine) {
+        append(RESET, mine.getName(), out -> {
+            out.writeLong(mine.getLastReset());
+            out.writeLong(mine.getResetCount());
+        });
+    }
+
+    public void recordPending(Mine mine) {
+        append(PENDING, mine.getName(), out -> out.writeBoolean(mine.isResetPending()));
+    }
+
+    public void recordDelete(String mineName) {
+        append(DELETE, mineName, out -> {
+        });
+    }
+
+    /**
+     * Applies every intact record of all journal files to the loaded mines.
+     * Returns the number of records applied.
+     */
+    public int replay(Map<String, Mine> mines) {
+        flush();
+
+        List<byte[]> records = new ArrayList<>();
+        for (long journal : listGenerations()) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(getFile(journal))))) {
+                byte[] payload;
+                while ((payload = readRecord(in)) != null) {
+                    records.add(payload);
+                }
+            } catch (IOException e) {
+                plugin.getLogger().warning("Failed to replay journal " + getFile(journal).getName() + ": " + e.getMessage());
+            }
+        }
+
+        // Records written before a mine was deleted belong to the old mine, not a recreated one
+        Map<String, Integer> lastDelete = new HashMap<>();
+        for (int i = 0; i < records.size(); i++) {
+            if (records.get(i)[0] == DELETE) {
+                lastDelete.put(readName(records.get(i)), i);
+            }
+        }
+
+        int applied = 0;
+        for (int i = 0; i < records.size(); i++) {
+            byte[] payload = records.get(i);
+            if (i > lastDelete.getOrDefault(readName(payload), -1) && apply(payload, mines)) {
+                applied++;
+            }
+        }
+        return applied;
+    }
+
+    /**
+     * Moves to a new journal file, saves every mine through {@code saveAll} and
+     * once those writes succeeded deletes the older journal files, whose records
+     * are now in the YAML. Records written while saving land in the new file and
+     * replay harmlessly.
+     */
+    public CompletableFuture<Void> compact(Supplier<CompletableFuture<Void>> saveAll) {
+        long previous;
+        boolean rotated;
+        synchronized (writeLock) {
+            writeBuffered();
+            previous = generation;
+            try {
+                FileChannel next = open(previous + 1);
+                closeChannel();
+                channel = next;
+                generation = previous + 1;
+                rotated = true;
+            } catch (IOException e) {
+                plugin.getLogger().warning("Failed to rotate reset journal: " + e.getMessage());
+                rotated = false;
+            }
+        }
+
+        // Saving outside the lock, the flusher and resets keep journaling meanwhile
+        if (!rotated) {
+            return saveAll.get();
+        }
+
+        // A failed save keeps the old files, their records are still needed
+        return saveAll.get().thenRun(() -> {
+            for (long journal : listGenerations()) {
+                if (journal <= previous) {
+                    getFile(journal).delete();
+                }
+            }
+        });
+    }
+
+    /**
+     * Writes the buffered records and fsyncs them. Runs on the async scheduler.
+     */
+    public void flush() {
+        synchronized (writeLock) {
+            writeBuffered();
+        }
+    }
+
+    private void writeBuffered() {
+        byte[] records;
+        synchronized (this) {
+            if (buffer.size() == 0) return;
+            records = buffer.toByteArray();
+            buffer = new ByteArrayOutputStream();
+        }
+
+        if (channel == null) return;
+
+        try {
+            ByteBuffer data = ByteBuffer.wrap(records);
+            while (data.hasRemaining()) {
+                channel.write(data);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            plugin.getLogger().severe("Failed to write reset journal: " + e.getMessage());
+        }
+    }
+
+    private void append(byte type, String mineName, RecordWriter writer) {
+        try {
+            ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream(64);
+            DataOutputStream payload = new DataOutputStream(payloadBytes);
+            payload.writeByte(type);
+            payload.writeUTF(mineName);
+            writer.write(payload);
+            payload.flush();
+
+            CRC32 crc = new CRC32();
+            crc.update(payloadBytes.toByteArray());
+
+            synchronized (this) {
+                DataOutputStream out = new DataOutputStream(buffer);
+                out.writeInt(payloadBytes.size());
+                payloadBytes.writeTo(out);
+                out.writeInt((int) crc.getValue());
+            }
+        } catch (IOException e) {
+            // Only happens for names too long for writeUTF
+            plugin.getLogger().warning("Failed to journal mine " + mineName + ": " + e.getMessage());
+        }
+    }
+
+    private byte[] readRecord(DataInputStream in) throws IOException {
+        int length;
+        try {
+            length = in.readInt();
+        } catch (EOFException e) {
+            return null;
+        }
+
+        if (length <= 0 || length > 65536) return null; // Torn write
+
+        byte[] payload = new byte[length];
+        try {
+            in.readFully(payload);
+            int expected = in.readInt();
+
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            return (int) crc.getValue() == expected ? payload : null;
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    private String readName(byte[] payload) {
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+            in.readByte();
+            return in.readUTF();
+        } catch (IOException e) {
+            return "";
+        }
+    }
+
+    private boolean apply(byte[] payload, Map<String, Mine> mines) {
+        try {
+            return apply(new DataInputStream(new ByteArrayInputStream(payload)), mines);
+        } catch (IOException e) {
+            return false; // Checksum matched but the record is from an unknown layout
+        }
+    }
+
+    private boolean apply(DataInputStream in, Map<String, Mine> mines) throws IOException {
+        byte type = in.readByte();
+        Mine mine = mines.get(in.readUTF());
+        if (mine == null) return false;
+
+        switch (type) {
+            case RESET: {
+                long lastReset = in.readLong();
+                long resetCount = in.readLong();
+                if (lastReset <= mine.getLastReset() && resetCount <= mine.getResetCount()) return false;
+
+                mine.setLastReset(Math.max(lastReset, mine.getLastReset()));
+                mine.setResetCount(Math.max(resetCount, mine.getResetCount()));
+                return true;
+            }
+            case PENDING:
+                mine.setResetPending(in.readBoolean());
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private List<Long> listGenerations() {
+        List<Long> generations = new ArrayList<>();
+        File[] files = journalFolder.listFiles((dir, name) -> name.endsWith(".amj"));
+        if (files != null) {
+            for (File file : files) {
+                try {
+                    generations.add(Long.parseLong(file.getName().substring(0, file.getName().length() - 4)));
+                } catch (NumberFormatException ignored) {
+                }
+            }
+        }
+        Collections.sort(generations);
+        return generations;
+    }
+
+    private FileChannel open(long journal) throws IOException {
+        return FileChannel.open(getFile(journal).toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private void closeChannel() {
+        if (channel == null) return;
+
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+        }
+        channel = null;
+    }
+
+    private File getFile(long journal) {
+        return new File(journalFolder, journal + ".amj");
+    }
+
+    private interface RecordWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+}
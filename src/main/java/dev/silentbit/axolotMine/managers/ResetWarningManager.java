@@ -0,0 +1,251 @@
+package dev.silentbit.axolotMine.managers;
+
+import dev.silentbit.axolotMine.AxolotMine;
+import dev.silentbit.axolotMine.models.Mine;
+import dev.silentbit.axolotMine.utils.SchedulerFacade;
+import net.kyori.adventure.bossbar.BossBar;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.title.Title;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Shows reset countdowns to players in and around mines that are about to reset.
+ *
+ * A single ticker walks a queue ordered by reset time and only looks at the
+ * mines due within the warning window, so its cost does not depend on how many
+ * mines exist. Each due mine is updated on its own region thread, and every
+ * mine renders one component per second that all of its viewers share.
+ *
+ * On Folia no single thread may look at every world's players, so the ticker
+ * runs on the global region and only picks the due mines; finding and
+ * messaging the players around a mine happens on that mine's region. A
+ * countdown can therefore be finished on the ticker while an update is still
+ * running, so updates check again once they are done showing it.
+ */
+public class ResetWarningManager {
+
+    private static final Title.Times TITLE_TIMES = Title.Times.times(Duration.ZERO, Duration.ofMillis(1200), Duration.ZERO);
+
+    private final AxolotMine plugin;
+    private final NavigableSet<Due> queue;
+    private final Map<String, Due> dues;
+    private final Map<String, Warning> active;
+    private SchedulerFacade.Task ticker;
+
+    public ResetWarningManager(AxolotMine plugin) {
+        this.plugin = plugin;
+        this.queue = new ConcurrentSkipListSet<>();
+        this.dues = new ConcurrentHashMap<>();
+        this.active = new ConcurrentHashMap<>();
+    }
+
+    public void start() {
+        if (!plugin.getConfigManager().isWarningsEnabled()) return;
+
+        ticker = plugin.getSchedulerFacade().runGlobalAtFixedRate(this::tick, 20L, 20L);
+    }
+
+    public void shutdown() {
+        if (ticker != null) {
+            ticker.cancel();
+            ticker = null;
+        }
+
+        for (String mineName : new ArrayList<>(active.keySet())) {
+            finish(mineName);
+        }
+        queue.clear();
+        dues.clear();
+    }
+
+    /**
+     * Queues the mine's next reset. Called whenever its reset is (re)scheduled,
+     * which also ends a countdown that belonged to the previous reset time.
+     */
+    public void track(Mine mine) {
+        Due due = new Due(mine.getNextReset(), mine.getName());
+        Due previous = dues.put(mine.getName(), due);
+        if (previous != null) {
+            queue.remove(previous);
+            if (previous.time != due.time) {
+                finish(mine.getName());
+            }
+        }
+        queue.add(due);
+    }
+
+    public void untrack(String mineName) {
+        Due previous = dues.remove(mineName);
+        if (previous != null) {
+            queue.remove(previous);
+        }
+        finish(mineName);
+    }
+
+    private void tick() {
+        long now = System.currentTimeMillis();
+        long horizon = now + plugin.getConfigManager().getWarningSeconds() * 1000L;
+
+        // Only the head of the queue is inside the window
+        for (Due due : queue.headSet(new Due(horizon, ""), true)) {
+            Mine mine = plugin.getMineManager().getMine(due.mineName);
+            if (mine == null || due.time <= now) {
+                queue.remove(due);
+                dues.remove(due.mineName, due);
+                finish(due.mineName);
+                continue;
+            }
+
+            World world = mine.getPos1().getWorld();
+            Location center = mine.getPos1().clone().add(mine.getPos2()).multiply(0.5);
+            if (world == null || !world.isChunkLoaded(center.getBlockX() >> 4, center.getBlockZ() >> 4)) {
+                continue; // Nobody can be watching an unloaded mine
+            }
+
+            int secondsLeft = (int) ((due.time - now + 999) / 1000);
+            plugin.getSchedulerFacade().runRegion(center, () -> update(mine, world, due, secondsLeft));
+        }
+    }
+
+    private void update(Mine mine, World world, Due due, int secondsLeft) {
+        if (dues.get(mine.getName()) != due) {
+            return; // Rescheduled or reset since this update was dispatched
+        }
+
+        ConfigManager config = plugin.getConfigManager();
+        Warning warning = active.computeIfAbsent(mine.getName(), name -> new Warning());
+        warning.render(mine, secondsLeft, config.getWarningSeconds());
+
+        int radius = config.getWarningRadius();
+        Location pos1 = mine.getPos1();
+        Location pos2 = mine.getPos2();
+        int minX = Math.min(pos1.getBlockX(), pos2.getBlockX()) - radius;
+        int maxX = Math.max(pos1.getBlockX(), pos2.getBlockX()) + radius;
+        int minY = Math.min(pos1.getBlockY(), pos2.getBlockY()) - radius;
+        int maxY = Math.max(pos1.getBlockY(), pos2.getBlockY()) + radius;
+        int minZ = Math.min(pos1.getBlockZ(), pos2.getBlockZ()) - radius;
+        int maxZ = Math.max(pos1.getBlockZ(), pos2.getBlockZ()) + radius;
+
+        Set<Player> nearby = new HashSet<>();
+        for (Player player : world.getPlayers()) {
+            Location location = player.getLocation();
+            if (location.getBlockX() >= minX && location.getBlockX() <= maxX
+                    && location.getBlockY() >= minY && location.getBlockY() <= maxY
+                    && location.getBlockZ() >= minZ && location.getBlockZ() <= maxZ) {
+                nearby.add(player);
+            }
+        }
+
+        String display = config.getWarningDisplay();
+        for (Player player : nearby) {
+            switch (display) {
+                case "actionbar":
+                    player.sendActionBar(warning.text);
+                    break;
+                case "title":
+                    player.showTitle(warning.title);
+                    break;
+                default:
+                    if (warning.viewers.add(player)) {
+                        player.showBossBar(warning.bar);
+                    }
+                    break;
+            }
+        }
+
+        // Players that walked away stop seeing the bar
+        for (Iterator<Player> iterator = warning.viewers.iterator(); iterator.hasNext(); ) {
+            Player viewer = iterator.next();
+            if (!nearby.contains(viewer)) {
+                iterator.remove();
+                hide(viewer, warning.bar);
+            }
+        }
+
+        // Finished while this update ran, nothing else would hide what it just showed.
+        // Requeueing the same reset time does not finish it, so compare by value here
+        if (!due.equals(dues.get(mine.getName()))) {
+            active.remove(mine.getName(), warning);
+            for (Player viewer : warning.viewers) {
+                hide(viewer, warning.bar);
+            }
+            warning.viewers.clear();
+        }
+    }
+
+    private void finish(String mineName) {
+        Warning warning = active.remove(mineName);
+        if (warning == null) return;
+
+        for (Player viewer : warning.viewers) {
+            hide(viewer, warning.bar);
+        }
+        warning.viewers.clear();
+    }
+
+    private void hide(Player player, BossBar bar) {
+        // Runs on the player's own thread, the caller may be on another region
+        plugin.getSchedulerFacade().runEntity(player, () -> player.hideBossBar(bar), null);
+    }
+
+    /**
+     * The countdown of one mine. Components are rendered once per second and
+     * shared by every viewer; the boss bar is reused for the whole countdown.
+     */
+    private final class Warning {
+
+        private final BossBar bar = BossBar.bossBar(Component.empty(), 1.0f, BossBar.Color.YELLOW, BossBar.Overlay.PROGRESS);
+        private final Set<Player> viewers = ConcurrentHashMap.newKeySet();
+        private int renderedSecond = -1;
+        private Component text;
+        private Title title;
+
+        private void render(Mine mine, int secondsLeft, int windowSeconds) {
+            if (secondsLeft == renderedSecond) return;
+            renderedSecond = secondsLeft;
+
+            Map<String, String> placeholders = Map.of("mine", mine.getName(), "time", String.valueOf(secondsLeft));
+            text = plugin.getMessageUtil().render("warning-countdown", placeholders);
+            title = Title.title(plugin.getMessageUtil().render("warning-title", placeholders),
+                    plugin.getMessageUtil().render("warning-subtitle", placeholders), TITLE_TIMES);
+
+            bar.name(text);
+            bar.progress(Math.max(0f, Math.min(1f, secondsLeft / (float) windowSeconds)));
+            bar.color(secondsLeft <= 5 ? BossBar.Color.RED : BossBar.Color.YELLOW);
+        }
+    }
+
+    private static final class Due implements Comparable<Due> {
+
+        private final long time;
+        private final String mineName;
+
+        private Due(long time, String mineName) {
+            this.time = time;
+            this.mineName = mineName;
+        }
+
+        @Override
+        public int compareTo(Due other) {
+            int byTime = Long.compare(time, other.time);
+            return byTime != 0 ? byTime : mineName.compareTo(other.mineName);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Due && compareTo((Due) other) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(time, mineName);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package dev.silentbit.axolotMine.managers;
+
+import dev.silentbit.axolotMine.AxolotMine;
+import dev.silentbit.axolotMine.models.IntervalMode;
+import dev.silentbit.axolotMine.models.Mine;
+import dev.silentbit.axolotMine.models.ResetSchedule;
+import dev.silentbit.axolotMine.utils.SchedulerFacade;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs the resets of mines on a wall-clock schedule.
+ *
+ * Mines due at the same time form a window. When a window opens its mines go
+ * through one shared pipeline, which starts the next reset only while the
+ * resets still being written stay under a block budget. A window then costs
+ * the same, plannable amount of work per tick however many mines fall into
+ * it, and spreads over more ticks instead of piling onto one.
+ */
+public class ResetWindowManager {
+
+    private final AxolotMine plugin;
+    private final NavigableMap<Long, Set<String>> windows;
+    private final Map<String, Long> dues;
+    private final Deque<Entry> queue; // Only touched by the ticker on the global region
+    private final AtomicLong inFlightBlocks;
+    private SchedulerFacade.Task ticker;
+
+    public ResetWindowManager(AxolotMine plugin) {
+        this.plugin = plugin;
+        this.windows = new TreeMap<>();
+        this.dues = new HashMap<>();
+        this.queue = new ArrayDeque<>();
+        this.inFlightBlocks = new AtomicLong();
+    }
+
+    public void start() {
+        ticker = plugin.getSchedulerFacade().runGlobalAtFixedRate(this::tick, 1L, 1L);
+    }
+
+    public void shutdown() {
+        if (ticker != null) {
+            ticker.cancel();
+            ticker = null;
+        }
+
+        synchronized (this) {
+            windows.clear();
+            dues.clear();
+        }
+        queue.clear();
+    }
+
+    /**
+     * Parses a schedule as given in a mine file or command, either a cron
+     * expression or {@code @name} of a schedule from the config.
+     *
+     * @throws IllegalArgumentException if it is not a valid schedule
+     */
+    public ResetSchedule parse(String schedule) {
+        ConfigManager config = plugin.getConfigManager();
+        String expression = schedule;
+        if (schedule.startsWith("@")) {
+            expression = config.getNamedSchedule(schedule.substring(1));
+            if (expression == null) {
+                throw new IllegalArgumentException("unknown schedule " + schedule);
+            }
+        }
+        return ResetSchedule.parse(schedule, expression, config.getScheduleZone());
+    }
+
+    /**
+     * Puts the mine into the window of its next reset, leaving the one it was in.
+     */
+    public synchronized void enqueue(Mine mine) {
+        long due = mine.getNextReset();
+        Long previous = dues.put(mine.getName(), due);
+        if (previous != null && previous != due) {
+            leave(mine.getName(), previous);
+        }
+        windows.computeIfAbsent(due, key -> new LinkedHashSet<>()).add(mine.getName());
+    }
+
+    public synchronized void remove(String mineName) {
+        Long previous = dues.remove(mineName);
+        if (previous != null) {
+            leave(mineName, previous);
+        }
+    }
+
+    public long getInFlightBlocks() {
+        return inFlightBlocks.get();
+    }
+
+    private void leave(String mineName, long due) {
+        Set<String> window = windows.get(due);
+        if (window != null && window.remove(mineName) && window.isEmpty()) {
+            windows.remove(due);
+        }
+    }
+
+    private void tick() {
+        open(System.currentTimeMillis());
+        drain();
+    }
+
+    /**
+     * Moves the mines of every window whose time has come into the pipeline.
+     */
+    private void open(long now) {
+        List<Entry> opened = new ArrayList<>();
+        synchronized (this) {
+            Map.Entry<Long, Set<String>> window;
+            while ((window = windows.firstEntry()) != null && window.getKey() <= now) {
+                windows.pollFirstEntry();
+
+                // Sorted, so a window runs in the same order every time
+                List<String> mineNames = new ArrayList<>(window.getValue());
+                Collections.sort(mineNames);
+                for (String mineName : mineNames) {
+                    dues.remove(mineName, window.getKey());
+                    opened.add(new Entry(mineName, window.getKey()));
+                }
+            }
+        }
+
+        if (opened.size() > 1) {
+            plugin.getLogger().info("Reset window opened for " + opened.size() + " mines");
+        }
+        queue.addAll(opened);
+    }
+
+    private void drain() {
+        long budget = plugin.getConfigManager().getScheduleMaxInFlightBlocks();
+
+        while (!queue.isEmpty()) {
+            Entry entry = queue.peek();
+            Mine mine = plugin.getMineManager().getMine(entry.mineName);
+
+            // Deleted, rescheduled or reset with a batch since the window opened
+            if (mine == null || mine.getIntervalMode() != IntervalMode.SCHEDULE
+                    || mine.getNextReset() != entry.due) {
+                queue.poll();
+                continue;
+            }
+
+            // A reset started before the window (a command, or a throttled or
+            // deferred one) is still running and counts for it, wait for the next one
+            if (mine.isResetting()) {
+                queue.poll();
+                mine.setLastReset(entry.due);
+                plugin.getMineManager().scheduleReset(mine);
+                continue;
+            }
+
+            // One reset always runs, so a mine above the budget still gets its turn
+            long blocks = mine.getBlockCount();
+            long inFlight = inFlightBlocks.get();
+            if (inFlight > 0 && inFlight + blocks > budget) return;
+
+            queue.poll();
+            inFlightBlocks.addAndGet(blocks);
+            plugin.getMineManager().runScheduledReset(mine)
+                    .whenComplete((ignored, throwable) -> inFlightBlocks.addAndGet(-blocks));
+        }
+    }
+
+    private static final class Entry {
+
+        private final String mineName;
+        private final long due;
+
+        private Entry(String mineName, long due) {
+            this.mineName = mineName;
+            this.due = due;
+        }
+    }
+}
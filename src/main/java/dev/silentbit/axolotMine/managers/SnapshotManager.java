@@ -0,0 +1,362 @@
+package dev.silentbit.axolotMine.managers;
+
+import dev.silentbit.axolotMine.AxolotMine;
+import dev.silentbit.axolotMine.models.Mine;
+import dev.silentbit.axolotMine.models.MineLayout;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.data.BlockData;
+
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Captures hand-built mines into palette-compressed snapshot files and maps
+ * them back for restore resets, so the block data stays off the heap.
+ *
+ * Files are mapped on the I/O executor and resets only read the mapped cache.
+ * A mapping cannot be released while a reset or pending reset may still read
+ * it, and some platforms refuse to replace or delete a mapped file, so every
+ * capture writes a new generation file ({@code <mine>.<generation>.amsnap}).
+ * Older generations are deleted once no longer mapped, failing that on the
+ * next capture or at exit.
+ *
+ * File layout (big endian):
+ * magic, version, data offset, bounds, global palette (block data strings),
+ * local palette of every section, padding, then the packed indices of all
+ * sections as longs starting at the data offset.
+ */
+public class SnapshotManager {
+
+    private static final int MAGIC = 0x414D534E; // "AMSN"
+    private static final int VERSION = 1;
+
+    private final AxolotMine plugin;
+    private final File snapshotsFolder;
+    private final Map<String, MineLayout> loaded;
+
+    public SnapshotManager(AxolotMine plugin) {
+        this.plugin = plugin;
+        this.snapshotsFolder = new File(plugin.getDataFolder(), "snapshots");
+        this.loaded = new ConcurrentHashMap<>();
+
+        if (!snapshotsFolder.exists()) {
+            snapshotsFolder.mkdirs();
+        }
+    }
+
+    /**
+     * Reads the current blocks of a mine on its region thread and writes them
+     * to the mine's snapshot file asynchronously. Completes with the palette size.
+     */
+    public CompletableFuture<Integer> capture(Mine mine) {
+        CompletableFuture<Integer> result = new CompletableFuture<>();
+        Location center = mine.getPos1().clone().add(mine.getPos2()).multiply(0.5);
+
+        plugin.getSchedulerFacade().runRegion(center, () -> {
+            Capture capture;
+            try {
+                capture = read(mine);
+            } catch (Exception e) {
+                result.completeExceptionally(e);
+                return;
+            }
+
+            plugin.getIoExecutor().execute(() -> {
+                try {
+                    File file = new File(snapshotsFolder, mine.getName() + "." + System.currentTimeMillis() + ".amsnap");
+                    write(file, capture);
+
+                    // Swap the new mapping in, the old one is dropped with its file
+                    loaded.put(mine.getName(), map(file, mine.getWorldName()));
+                    deleteFiles(mine.getName(), file);
+                    result.complete(capture.palette.size());
+                } catch (IOException | RuntimeException e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        });
+
+        return result;
+    }
+
+    /**
+     * Maps the snapshot of a mine on the I/O executor unless it is mapped
+     * already. Completes with the layout, or null if it has none or the file
+     * no longer matches the mine's region.
+     */
+    public CompletableFuture<MineLayout> prepare(Mine mine) {
+        MineLayout cached = loaded.get(mine.getName());
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached.matches(mine) ? cached : null);
+        }
+
+        return CompletableFuture.supplyAsync(() -> {
+            File file = getFile(mine.getName());
+            if (file == null) return null;
+
+            try {
+                MineLayout layout = map(file, mine.getWorldName());
+                MineLayout previous = loaded.putIfAbsent(mine.getName(), layout);
+                layout = previous != null ? previous : layout;
+                return layout.matches(mine) ? layout : null;
+            } catch (IOException | RuntimeException e) {
+                plugin.getLogger().severe("Failed to load snapshot of mine " + mine.getName() + ": " + e.getMessage());
+                return null;
+            }
+        }, plugin.getIoExecutor());
+    }
+
+    /**
+     * Gets the mapped snapshot layout of a mine, or null if it has none, it is
+     * not mapped yet or the file no longer matches the mine's region. Never
+     * touches the disk, a snapshot not mapped yet is mapped for the next reset.
+     */
+    public MineLayout load(Mine mine) {
+        MineLayout layout = loaded.get(mine.getName());
+        if (layout == null) {
+            prepare(mine);
+            return null;
+        }
+
+        return layout.matches(mine) ? layout : null;
+    }
+
+    public boolean hasSnapshot(String mineName) {
+        return loaded.containsKey(mineName) || getFile(mineName) != null;
+    }
+
+    public void delete(String mineName) {
+        loaded.remove(mineName);
+        plugin.getIoExecutor().execute(() -> deleteFiles(mineName, null));
+    }
+
+    public void shutdown() {
+        loaded.clear();
+    }
+
+    /**
+     * Gets the newest snapshot file of a mine, or null if it has none.
+     */
+    private File getFile(String mineName) {
+        File newest = null;
+        long newestGeneration = -1;
+        for (File file : listFiles(mineName)) {
+            long generation = generationOf(mineName, file);
+            if (generation > newestGeneration) {
+                newest = file;
+                newestGeneration = generation;
+            }
+        }
+        return newest;
+    }
+
+    private List<File> listFiles(String mineName) {
+        File[] files = snapshotsFolder.listFiles((dir, name) -> name.endsWith(".amsnap"));
+        List<File> matching = new ArrayList<>();
+        for (File file : files != null ? files : new File[0]) {
+            if (generationOf(mineName, file) >= 0) {
+                matching.add(file);
+            }
+        }
+        return matching;
+    }
+
+    /**
+     * Generation of a snapshot file of the mine, 0 for the unnumbered files
+     * of older versions, or -1 if the file belongs to another mine.
+     */
+    private static long generationOf(String mineName, File file) {
+        String name = file.getName();
+        if (name.equals(mineName + ".amsnap")) return 0;
+        if (!name.startsWith(mineName + ".")) return -1;
+
+        String generation = name.substring(mineName.length() + 1, name.length() - ".amsnap".length());
+        if (generation.isEmpty() || !generation.chars().allMatch(Character::isDigit)) return -1;
+        return Long.parseLong(generation);
+    }
+
+    /**
+     * Deletes the snapshot files of a mine except {@code keep}. A file still
+     * mapped by a running reset may not be deletable yet, it goes at exit.
+     */
+    private void deleteFiles(String mineName, File keep) {
+        for (File file : listFiles(mineName)) {
+            if (file.equals(keep)) continue;
+            if (!file.delete() && file.exists()) {
+                file.deleteOnExit();
+            }
+        }
+    }
+
+    private Capture read(Mine mine) {
+        World world = mine.getPos1().getWorld();
+        if (world == null) {
+            throw new IllegalStateException("World " + mine.getWorldName() + " is not loaded");
+        }
+
+        Location pos1 = mine.getPos1();
+        Location pos2 = mine.getPos2();
+        Capture capture = new Capture(
+                Math.min(pos1.getBlockX(), pos2.getBlockX()),
+                Math.min(pos1.getBlockY(), pos2.getBlockY()),
+                Math.min(pos1.getBlockZ(), pos2.getBlockZ()),
+                Math.max(pos1.getBlockX(), pos2.getBlockX()),
+                Math.max(pos1.getBlockY(), pos2.getBlockY()),
+                Math.max(pos1.getBlockZ(), pos2.getBlockZ()));
+
+        Map<String, Integer> globalIds = new HashMap<>();
+        int[] slots = new int[16 * 16 * 16];
+
+        // Only the geometry is needed here, the real palettes are built while reading
+        List<MineLayout.Section> sections = MineLayout.split(capture.minX, capture.minY, capture.minZ,
+                capture.maxX, capture.maxY, capture.maxZ, index -> new int[0]);
+
+        for (MineLayout.Section section : sections) {
+            Map<Integer, Integer> localIds = new LinkedHashMap<>();
+            int index = 0;
+
+            for (int y = section.getMinY(); y < section.getMinY() + section.getSizeY(); y++) {
+                for (int z = section.getMinZ(); z < section.getMinZ() + section.getSizeZ(); z++) {
+                    for (int x = section.getMinX(); x < section.getMinX() + section.getSizeX(); x++) {
+                        String data = world.getBlockAt(x, y, z).getBlockData().getAsString();
+                        Integer globalId = globalIds.get(data);
+                        if (globalId == null) {
+                            globalId = capture.palette.size();
+                            globalIds.put(data, globalId);
+                            capture.palette.add(data);
+                        }
+
+                        Integer localId = localIds.get(globalId);
+                        if (localId == null) {
+                            localId = localIds.size();
+                            localIds.put(globalId, localId);
+                        }
+                        slots[index++] = localId;
+                    }
+                }
+            }
+
+            int[] localPalette = localIds.keySet().stream().mapToInt(Integer::intValue).toArray();
+            capture.sectionPalettes.add(localPalette);
+            capture.packed.add(MineLayout.pack(slots, index, MineLayout.bitsFor(localPalette.length)));
+        }
+
+        return capture;
+    }
+
+    private void write(File file, Capture capture) throws IOException {
+        ByteArrayOutputStream headerBytes = new ByteArrayOutputStream();
+        DataOutputStream header = new DataOutputStream(headerBytes);
+
+        header.writeInt(capture.minX);
+        header.writeInt(capture.minY);
+        header.writeInt(capture.minZ);
+        header.writeInt(capture.maxX);
+        header.writeInt(capture.maxY);
+        header.writeInt(capture.maxZ);
+
+        header.writeInt(capture.palette.size());
+        for (String data : capture.palette) {
+            header.writeUTF(data);
+        }
+
+        header.writeInt(capture.sectionPalettes.size());
+        for (int[] localPalette : capture.sectionPalettes) {
+            header.writeInt(localPalette.length);
+            for (int globalId : localPalette) {
+                header.writeInt(globalId);
+            }
+        }
+        header.flush();
+
+        // magic + version + data offset, then the header, padded so the longs are aligned
+        long written = 16L + headerBytes.size();
+        long dataOffset = (written + 7) & ~7L;
+
+        File temp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(dataOffset);
+            headerBytes.writeTo(out);
+            for (long i = written; i < dataOffset; i++) {
+                out.writeByte(0);
+            }
+
+            for (long[] words : capture.packed) {
+                for (long word : words) {
+                    out.writeLong(word);
+                }
+            }
+        }
+
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private MineLayout map(File file, String worldName) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)))) {
+
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Unknown snapshot format");
+            }
+            long dataOffset = in.readLong();
+
+            int minX = in.readInt();
+            int minY = in.readInt();
+            int minZ = in.readInt();
+            int maxX = in.readInt();
+            int maxY = in.readInt();
+            int maxZ = in.readInt();
+
+            BlockData[] palette = new BlockData[in.readInt()];
+            for (int i = 0; i < palette.length; i++) {
+                palette[i] = plugin.getServer().createBlockData(in.readUTF());
+            }
+
+            int[][] sectionPalettes = new int[in.readInt()][];
+            for (int i = 0; i < sectionPalettes.length; i++) {
+                sectionPalettes[i] = new int[in.readInt()];
+                for (int j = 0; j < sectionPalettes[i].length; j++) {
+                    sectionPalettes[i][j] = in.readInt();
+                }
+            }
+
+            List<MineLayout.Section> sections = MineLayout.split(minX, minY, minZ, maxX, maxY, maxZ,
+                    index -> sectionPalettes[index]);
+
+            // The mapping stays valid after the channel is closed and is paged in from disk on demand
+            MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, dataOffset,
+                    (long) MineLayout.totalLongs(sections) * Long.BYTES);
+
+            return new MineLayout(worldName, minX, minY, minZ, maxX, maxY, maxZ,
+                    palette, sections, data.asLongBuffer(), null, 0L);
+        }
+    }
+
+    private static final class Capture {
+
+        private final int minX, minY, minZ, maxX, maxY, maxZ;
+        private final List<String> palette = new ArrayList<>();
+        private final List<int[]> sectionPalettes = new ArrayList<>();
+        private final List<long[]> packed = new ArrayList<>();
+
+        private Capture(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+            this.minX = minX;
+            this.minY = minY;
+            this.minZ = minZ;
+            this.maxX = maxX;
+            this.maxY = maxY;
+            this.maxZ = maxZ;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package dev.silentbit.axolotMine.managers;
+
+import dev.silentbit.axolotMine.AxolotMine;
+import dev.silentbit.axolotMine.models.Mine;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Counts the blocks that are currently in a mine without walking them on a
+ * region thread. Each covered chunk is captured as a ChunkSnapshot on the
+ * region owning it, and the snapshots are counted in parallel on the async
+ * scheduler.
+ */
+public class SurveyManager {
+
+    private static final Material[] MATERIALS = Material.values();
+
+    private final AxolotMine plugin;
+    private final Executor counter;
+
+    public SurveyManager(AxolotMine plugin) {
+        this.plugin = plugin;
+        this.counter = task -> plugin.getSchedulerFacade().runAsync(task);
+    }
+
+    public CompletableFuture<Survey> survey(Mine mine) {
+        World world = mine.getPos1().getWorld();
+        if (world == null) {
+            return CompletableFuture.failedFuture(new IllegalStateException("world " + mine.getWorldName() + " is not loaded"));
+        }
+
+        Location pos1 = mine.getPos1();
+        Location pos2 = mine.getPos2();
+        int[] bounds = {
+                Math.min(pos1.getBlockX(), pos2.getBlockX()), Math.max(pos1.getBlockX(), pos2.getBlockX()),
+                Math.min(pos1.getBlockY(), pos2.getBlockY()), Math.max(pos1.getBlockY(), pos2.getBlockY()),
+                Math.min(pos1.getBlockZ(), pos2.getBlockZ()), Math.max(pos1.getBlockZ(), pos2.getBlockZ())
+        };
+        int minHeight = world.getMinHeight();
+
+        return plugin.getChunkTicketManager().acquire(mine).thenCompose(lease -> {
+            List<CompletableFuture<ChunkSnapshot>> snapshots = new ArrayList<>();
+            List<CompletableFuture<long[]>> counts = new ArrayList<>();
+
+            for (int cx = bounds[0] >> 4; cx <= bounds[1] >> 4; cx++) {
+                for (int cz = bounds[4] >> 4; cz <= bounds[5] >> 4; cz++) {
+                    int chunkX = cx;
+                    int chunkZ = cz;
+                    CompletableFuture<ChunkSnapshot> snapshot = new CompletableFuture<>();
+                    plugin.getSchedulerFacade().runRegion(world, chunkX, chunkZ, () -> {
+                        try {
+                            snapshot.complete(world.getChunkAt(chunkX, chunkZ).getChunkSnapshot(false, false, false));
+                        } catch (RuntimeException e) {
+                            snapshot.completeExceptionally(e);
+                        }
+                    });
+
+                    snapshots.add(snapshot);
+                    counts.add(snapshot.thenApplyAsync(captured -> count(captured, bounds, minHeight), counter));
+                }
+            }
+
+            // The chunks only have to stay loaded until every snapshot is taken
+            CompletableFuture.allOf(snapshots.toArray(new CompletableFuture[0]))
+                    .whenComplete((ignored, throwable) -> lease.release());
+
+            return CompletableFuture.allOf(counts.toArray(new CompletableFuture[0])).thenApply(ignored -> {
+                long[] total = new long[MATERIALS.length];
+                for (CompletableFuture<long[]> count : counts) {
+                    long[] chunk = count.join();
+                    for (int i = 0; i < total.length; i++) {
+                        total[i] += chunk[i];
+                    }
+                }
+                return new Survey(total, mine.getBlockCount());
+            });
+        });
+    }
+
+    private static long[] count(ChunkSnapshot snapshot, int[] bounds, int minHeight) {
+        long[] counts = new long[MATERIALS.length];
+        int baseX = snapshot.getX() << 4;
+        int baseZ = snapshot.getZ() << 4;
+        int minX = Math.max(bounds[0], baseX) - baseX;
+        int maxX = Math.min(bounds[1], baseX + 15) - baseX;
+        int minZ = Math.max(bounds[4], baseZ) - baseZ;
+        int maxZ = Math.min(bounds[5], baseZ + 15) - baseZ;
+        int columns = (maxX - minX + 1) * (maxZ - minZ + 1);
+
+        for (int y = bounds[2]; y <= bounds[3]; y++) {
+            // Empty sections are all air, count them without reading a block
+            int section = (y - minHeight) >> 4;
+            if (snapshot.isSectionEmpty(section)) {
+                int sectionEnd = Math.min(bounds[3], minHeight + (section << 4) + 15);
+                counts[Material.AIR.ordinal()] += (long) columns * (sectionEnd - y + 1);
+                y = sectionEnd;
+                continue;
+            }
+
+            for (int z = minZ; z <= maxZ; z++) {
+                for (int x = minX; x <= maxX; x++) {
+                    counts[snapshot.getBlockType(x, y, z).ordinal()]++;
+                }
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * The blocks found in a mine, per material.
+     */
+    public static final class Survey {
+
+        private final Map<Material, Long> counts;
+        private final long volume;
+        private final long solid;
+
+        private Survey(long[] counts, long volume) {
+            this.counts = new EnumMap<>(Material.class);
+            long solid = 0;
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] == 0) continue;
+
+                this.counts.put(MATERIALS[i], counts[i]);
+                if (!MATERIALS[i].isAir()) {
+                    solid += counts[i];
+                }
+            }
+            this.volume = volume;
+            this.solid = solid;
+        }
+
+        public Map<Material, Long> getCounts() {
+            return Collections.unmodifiableMap(counts);
+        }
+
+        public long getVolume() {
+            return volume;
+        }
+
+        /**
+         * Blocks that are not air, i.e. not mined yet.
+         */
+        public long getSolidBlocks() {
+            return solid;
+        }
+
+        public double getRemainingPercentage() {
+            return volume == 0 ? 0 : solid * 100.0 / volume;
+        }
+
+        /**
+         * Turns the non-air blocks into a composition in percent, rounded to
+         * two decimals. Materials that round to zero are left out.
+         */
+        public Map<Material, Double> toComposition() {
+            Map<Material, Double> composition = new HashMap<>();
+            if (solid == 0) return composition;
+
+            for (Map.Entry<Material, Long> entry : counts.entrySet()) {
+                if (entry.getKey().isAir()) continue;
+
+                double percentage = Math.round(entry.getValue() * 10000.0 / solid) / 100.0;
+                if (percentage > 0) {
+                    composition.put(entry.getKey(), percentage);
+                }
+            }
+            return composition;
+        }
+    }
+}
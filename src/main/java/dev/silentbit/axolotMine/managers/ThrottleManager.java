@@ -0,0 +1,115 @@
+package dev.silentbit.axolotMine.managers;
+
+import dev.silentbit.axolotMine.AxolotMine;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Decides how many blocks a reset may write on a tick, based on how loaded
+ * the region running it is.
+ *
+ * Paper reports the server's average tick time. Folia has no public per-region
+ * tick statistics, so there every writer measures the interval between its own
+ * runs on the region, which grows past 50ms as soon as the region falls behind.
+ * Resets of mines with players nearby are prioritized: they always make some
+ * progress, while other resets in the same world wait for them and pause while
+ * the region is over its target.
+ */
+public class ThrottleManager {
+
+    /** Tick length of a region that keeps up. */
+    public static final double TICK_MILLIS = 50.0;
+
+    /** Jitter of a measured tick interval that still counts as keeping up. */
+    private static final double INTERVAL_SLACK_MILLIS = 5.0;
+
+    private final AxolotMine plugin;
+    private final boolean folia;
+    private final Map<String, AtomicInteger> priorityWriters;
+
+    public ThrottleManager(AxolotMine plugin) {
+        this.plugin = plugin;
+        this.folia = plugin.getSchedulerFacade().isFolia();
+        this.priorityWriters = new ConcurrentHashMap<>();
+    }
+
+    public boolean isEnabled() {
+        return plugin.getConfigManager().isThrottleEnabled();
+    }
+
+    /**
+     * Returns the tick time to compare against the target. {@code measured} is the
+     * writer's own smoothed tick interval and is only used where the server has no
+     * tick time for the region.
+     *
+     * A region that keeps up ticks every 50ms however busy it is, so on Folia the
+     * interval only shows the tick time once it runs longer than that. Until then
+     * the region counts as being within the target, whatever the target is.
+     */
+    public double getMspt(double measured) {
+        if (folia) {
+            if (measured <= TICK_MILLIS + INTERVAL_SLACK_MILLIS) {
+                return Math.min(measured, plugin.getConfigManager().getThrottleMsptTarget());
+            }
+            return measured;
+        }
+        return plugin.getServer().getAverageTickTime();
+    }
+
+    /**
+     * Returns the block budget for one tick, 0 meaning the writer should wait.
+     *
+     * @param mspt      the region's current tick time
+     * @param priority  whether players were near the mine when the reset started
+     * @param overdue   whether the writer already waited the configured maximum
+     * @param worldName the world of the mine, low priority writers yield to priority ones there
+     */
+    public int getBudget(double mspt, boolean priority, boolean overdue, String worldName) {
+        ConfigManager config = plugin.getConfigManager();
+        int blocksPerTick = config.getThrottleBlocksPerTick();
+        if (overdue) {
+            return blocksPerTick;
+        }
+
+        if (!priority && getPriorityWriters(worldName) > 0) {
+            return 0;
+        }
+
+        double target = config.getThrottleMsptTarget();
+        if (mspt <= target) {
+            return blocksPerTick;
+        }
+        if (!priority) {
+            return 0;
+        }
+
+        // Shrink quadratically so a badly lagging region gets little extra work
+        double factor = target / mspt;
+        return Math.max(1, (int) (blocksPerTick * factor * factor));
+    }
+
+    /**
+     * Returns whether a reset that applies all of its blocks at once may start now.
+     */
+    public boolean canStart(double mspt, boolean priority, boolean overdue, String worldName) {
+        return overdue || priority || getBudget(mspt, false, false, worldName) > 0;
+    }
+
+    public void beginPriority(String worldName) {
+        priorityWriters.computeIfAbsent(worldName, name -> new AtomicInteger()).incrementAndGet();
+    }
+
+    public void endPriority(String worldName) {
+        AtomicInteger count = priorityWriters.get(worldName);
+        if (count != null) {
+            count.decrementAndGet();
+        }
+    }
+
+    private int getPriorityWriters(String worldName) {
+        AtomicInteger count = priorityWriters.get(worldName);
+        return count != null ? count.get() : 0;
+    }
+}
@@ -1,17 +1,29 @@
 package dev.silentbit.axolotMine.managers;
 
+import com.sk89q.worldedit.EditSession;
 import com.sk89q.worldedit.IncompleteRegionException;
+import com.sk89q.worldedit.MaxChangedBlocksException;
+import com.sk89q.worldedit.WorldEdit;
 import com.sk89q.worldedit.bukkit.BukkitAdapter;
+import com.sk89q.worldedit.math.BlockVector3;
 import com.sk89q.worldedit.regions.Region;
+import com.sk89q.worldedit.util.SideEffect;
+import com.sk89q.worldedit.util.SideEffectSet;
 import dev.silentbit.axolotMine.AxolotMine;
+import dev.silentbit.axolotMine.models.MineLayout;
+import org.bukkit.World;
 import org.bukkit.entity.Player;
 
+import java.util.function.Consumer;
+
 public class WorldEditHandler {
 
     private final AxolotMine plugin;
+    private final SideEffect networkSideEffect;
 
     public WorldEditHandler(AxolotMine plugin) {
         this.plugin = plugin;
+        this.networkSideEffect = findNetworkSideEffect();
     }
 
     public Region getSelection(Player player) throws IncompleteRegionException {
@@ -19,6 +31,70 @@ public class WorldEditHandler {
         return worldEdit.getSession(player).getSelection(BukkitAdapter.adapt(player.getWorld()));
     }
 
+    /**
+     * Whether the installed WorldEdit can skip sending block changes to clients.
+     */
+    public boolean canSuppressNetwork() {
+        return networkSideEffect != null;
+    }
+
+    /**
+     * Writes a layout through a WorldEdit edit session. Neighbour updates are
+     * skipped and lighting is delayed until the session is closed, so light is
+     * recalculated after the whole fill instead of after every block.
+     * With {@code suppressNetwork} no block changes are sent to clients, the
+     * caller has to resync the affected chunks itself.
+     *
+     * @return true if block change packets were suppressed
+     */
+    public boolean applyLayout(World world, MineLayout layout, boolean suppressNetwork) {
+        return applyBlocks(world, layout::forEachBlock, suppressNetwork);
+    }
+
+    /**
+     * Same as {@link #applyLayout}, for blocks from any source. A batch reset
+     * uses it to write the sections of several mines in one session, so every
+     * section is relit once.
+     */
+    public boolean applyBlocks(World world, Consumer<MineLayout.BlockConsumer> blocks, boolean suppressNetwork) {
+        SideEffectSet sideEffects = SideEffectSet.defaults()
+                .with(SideEffect.LIGHTING, SideEffect.State.DELAYED)
+                .with(SideEffect.NEIGHBORS, SideEffect.State.OFF);
+
+        boolean suppressed = suppressNetwork && networkSideEffect != null;
+        if (suppressed) {
+            sideEffects = sideEffects.with(networkSideEffect, SideEffect.State.OFF);
+        }
+
+        try (EditSession session = WorldEdit.getInstance().newEditSessionBuilder()
+                .world(BukkitAdapter.adapt(world))
+                .maxBlocks(-1)
+                .build()) {
+            session.setSideEffectApplier(sideEffects);
+            session.setBatchingChunks(true);
+
+            blocks.accept((x, y, z, data) -> {
+                try {
+                    session.setBlock(BlockVector3.at(x, y, z), BukkitAdapter.adapt(data));
+                } catch (MaxChangedBlocksException e) {
+                    // Cannot happen, the session has no block limit
+                    throw new IllegalStateException(e);
+                }
+            });
+        }
+
+        return suppressed;
+    }
+
+    private SideEffect findNetworkSideEffect() {
+        // Only newer WorldEdit versions can stop sending block updates to clients
+        try {
+            return SideEffect.valueOf("NETWORK");
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
     private com.sk89q.worldedit.bukkit.WorldEditPlugin getWorldEdit() {
         return (com.sk89q.worldedit.bukkit.WorldEditPlugin) plugin.getServer().getPluginManager().getPlugin("WorldEdit");
     }
@@ -1,16 +1,71 @@
 package dev.silentbit.axolotMine.managers;
 
 import dev.silentbit.axolotMine.AxolotMine;
+import org.bukkit.World;
+import org.bukkit.WorldCreator;
 
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Loads the worlds of mines on demand, so those worlds do not have to be
+ * loaded at startup. Mines bind to the world through the regular
+ * WorldLoadEvent once it is there.
+ *
+ * Only created on Paper and Spigot. Folia rejects {@code Server#createWorld},
+ * there mines wait until the world is loaded by the server or another plugin.
+ */
 public class WorldsHandler {
 
     private final AxolotMine plugin;
+    private final Map<String, CompletableFuture<World>> loading;
 
     public WorldsHandler(AxolotMine plugin) {
         this.plugin = plugin;
-        // Integration with Worlds API can be implemented here
-        // Based on https://thenextlvl.net/docs/worlds/api
+        this.loading = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Loads an existing world. Concurrent requests for the same world share one load.
+     */
+    public CompletableFuture<World> loadWorld(String worldName) {
+        World world = plugin.getServer().getWorld(worldName);
+        if (world != null) {
+            return CompletableFuture.completedFuture(world);
+        }
+
+        return loading.computeIfAbsent(worldName, name -> {
+            CompletableFuture<World> future = new CompletableFuture<>();
+            plugin.getSchedulerFacade().runGlobal(() -> {
+                try {
+                    // Never create a new world for a mine whose world is gone
+                    if (!new File(new File(plugin.getServer().getWorldContainer(), name), "level.dat").exists()) {
+                        throw new FileNotFoundException("no world folder named " + name);
+                    }
+
+                    World loaded = plugin.getServer().createWorld(new WorldCreator(name));
+                    if (loaded == null) {
+                        throw new IllegalStateException("the server refused to load " + name);
+                    }
+                    future.complete(loaded);
+                } catch (Exception e) {
+                    plugin.getLogger().warning("Failed to load world " + name + ": " + e.getMessage());
+                    future.completeExceptionally(e);
+                } finally {
+                    loading.remove(name, future);
+                }
+            });
+            return future;
+        });
     }
 
-    // Methods for world management integration
+    public void loadWorlds(Collection<String> worldNames) {
+        for (String worldName : worldNames) {
+            loadWorld(worldName);
+        }
+    }
 }
@@ -0,0 +1,54 @@
+package dev.silentbit.axolotMine.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A fixed-bucket latency histogram built from LongAdders, so recording from
+ * many threads never contends on a lock.
+ */
+public class LatencyHistogram {
+
+    // Upper bounds in seconds, the +Inf bucket is implicit
+    private static final double[] BOUNDS = {0.001, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10};
+
+    private final LongAdder[] buckets;
+    private final LongAdder sumNanos;
+
+    public LatencyHistogram() {
+        this.buckets = new LongAdder[BOUNDS.length + 1];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+        this.sumNanos = new LongAdder();
+    }
+
+    public void record(long nanos) {
+        double seconds = nanos / 1_000_000_000.0;
+        int bucket = 0;
+        while (bucket < BOUNDS.length && seconds > BOUNDS[bucket]) {
+            bucket++;
+        }
+        buckets[bucket].increment();
+        sumNanos.add(nanos);
+    }
+
+    /**
+     * Writes the histogram's samples in OpenMetrics text. {@code labels} is
+     * either empty or a list like {@code backend="bukkit"} without braces.
+     */
+    public void write(StringBuilder out, String name, String labels) {
+        String prefix = labels.isEmpty() ? "" : labels + ",";
+        long cumulative = 0;
+        for (int i = 0; i < BOUNDS.length; i++) {
+            cumulative += buckets[i].sum();
+            out.append(name).append("_bucket{").append(prefix).append("le=\"").append(BOUNDS[i]).append("\"} ")
+                    .append(cumulative).append('\n');
+        }
+        cumulative += buckets[BOUNDS.length].sum();
+        out.append(name).append("_bucket{").append(prefix).append("le=\"+Inf\"} ").append(cumulative).append('\n');
+
+        String braces = labels.isEmpty() ? "" : "{" + labels + "}";
+        out.append(name).append("_count").append(braces).append(' ').append(cumulative).append('\n');
+        out.append(name).append("_sum").append(braces).append(' ').append(sumNanos.sum() / 1_000_000_000.0).append('\n');
+    }
+}
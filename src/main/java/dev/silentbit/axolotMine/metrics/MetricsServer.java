@@ -0,0 +1,133 @@
+package dev.silentbit.axolotMine.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import dev.silentbit.axolotMine.AxolotMine;
+import dev.silentbit.axolotMine.models.ResetBackend;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves the plugin's counters in OpenMetrics text on {@code /metrics}, so
+ * Prometheus can scrape them. Every scrape only reads the counters; the
+ * server runs on its own thread and never touches a region.
+ */
+public class MetricsServer {
+
+    private static final String CONTENT_TYPE = "application/openmetrics-text; version=1.0.0; charset=utf-8";
+
+    private final AxolotMine plugin;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public MetricsServer(AxolotMine plugin) {
+        this.plugin = plugin;
+    }
+
+    public void start(String host, int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(host, port), 0);
+        server.createContext("/metrics", this::handle);
+
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "AxolotMine-Metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    public void shutdown() {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!exchange.getRequestMethod().equals("GET")) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+
+            byte[] body = scrape().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private String scrape() {
+        ResetMetrics resets = plugin.getResetMetrics();
+        PluginMetrics metrics = plugin.getPluginMetrics();
+        StringBuilder out = new StringBuilder(4096);
+
+        header(out, "axolotmine_resets", "counter", "Completed mine resets.");
+        for (ResetBackend backend : ResetBackend.values()) {
+            sample(out, "axolotmine_resets_total", backend(backend), resets.getResets(backend));
+        }
+
+        header(out, "axolotmine_reset_blocks", "counter", "Blocks written by resets.");
+        for (ResetBackend backend : ResetBackend.values()) {
+            sample(out, "axolotmine_reset_blocks_total", backend(backend), resets.getBlocks(backend));
+        }
+
+        header(out, "axolotmine_reset_duration_seconds", "histogram", "Time spent writing the blocks of a reset.");
+        for (ResetBackend backend : ResetBackend.values()) {
+            resets.getDurations(backend).write(out, "axolotmine_reset_duration_seconds", backend(backend));
+        }
+
+        header(out, "axolotmine_chunk_resyncs", "counter", "Chunks resent to clients after a reset.");
+        sample(out, "axolotmine_chunk_resyncs_total", "", resets.getChunkResyncs());
+
+        header(out, "axolotmine_mine_save_duration_seconds", "histogram", "Time spent saving a mine file.");
+        metrics.getSaveLatency().write(out, "axolotmine_mine_save_duration_seconds", "");
+
+        header(out, "axolotmine_mine_save_failures", "counter", "Mine files that failed to save.");
+        sample(out, "axolotmine_mine_save_failures_total", "", metrics.getSaveFailures());
+
+        header(out, "axolotmine_placeholder_requests", "counter", "PlaceholderAPI requests handled.");
+        sample(out, "axolotmine_placeholder_requests_total", "resolved=\"true\"", metrics.getPlaceholderRequests(true));
+        sample(out, "axolotmine_placeholder_requests_total", "resolved=\"false\"", metrics.getPlaceholderRequests(false));
+
+        header(out, "axolotmine_mines", "gauge", "Loaded mines.");
+        sample(out, "axolotmine_mines", "", plugin.getMineManager().getAllMines().size());
+
+        header(out, "axolotmine_pending_resets", "gauge", "Resets waiting for their chunks to load.");
+        sample(out, "axolotmine_pending_resets", "", plugin.getPendingResetManager().getPendingCount());
+
+        out.append("# EOF\n");
+        return out.toString();
+    }
+
+    private static void header(StringBuilder out, String name, String type, String help) {
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, long value) {
+        out.append(name);
+        if (!labels.isEmpty()) {
+            out.append('{').append(labels).append('}');
+        }
+        out.append(' ').append(value).append('\n');
+    }
+
+    private static String backend(ResetBackend backend) {
+        return "backend=\"" + backend.name().toLowerCase() + "\"";
+    }
+}
@@ -0,0 +1,45 @@
+package dev.silentbit.axolotMine.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free counters for the work around resets: mine file saves and
+ * placeholder requests.
+ */
+public class PluginMetrics {
+
+    private final LatencyHistogram saveLatency;
+    private final LongAdder saveFailures;
+    private final LongAdder placeholdersResolved;
+    private final LongAdder placeholdersUnresolved;
+
+    public PluginMetrics() {
+        this.saveLatency = new LatencyHistogram();
+        this.saveFailures = new LongAdder();
+        this.placeholdersResolved = new LongAdder();
+        this.placeholdersUnresolved = new LongAdder();
+    }
+
+    public void recordSave(long nanos, boolean success) {
+        saveLatency.record(nanos);
+        if (!success) {
+            saveFailures.increment();
+        }
+    }
+
+    public void recordPlaceholder(boolean resolved) {
+        (resolved ? placeholdersResolved : placeholdersUnresolved).increment();
+    }
+
+    public LatencyHistogram getSaveLatency() {
+        return saveLatency;
+    }
+
+    public long getSaveFailures() {
+        return saveFailures.sum();
+    }
+
+    public long getPlaceholderRequests(boolean resolved) {
+        return (resolved ? placeholdersResolved : placeholdersUnresolved).sum();
+    }
+}
@@ -0,0 +1,74 @@
+package dev.silentbit.axolotMine.metrics;
+
+import dev.silentbit.axolotMine.models.ResetBackend;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free counters for the write phase of resets, kept per backend so the
+ * backends can be compared on the same server.
+ */
+public class ResetMetrics {
+
+    private final Map<ResetBackend, Counters> counters;
+    private final LongAdder chunkResyncs;
+
+    public ResetMetrics() {
+        this.counters = new EnumMap<>(ResetBackend.class);
+        for (ResetBackend backend : ResetBackend.values()) {
+            counters.put(backend, new Counters());
+        }
+        this.chunkResyncs = new LongAdder();
+    }
+
+    public void record(ResetBackend backend, int blocks, long nanos) {
+        Counters counter = counters.get(backend);
+        counter.resets.increment();
+        counter.blocks.add(blocks);
+        counter.nanos.add(nanos);
+        counter.durations.record(nanos);
+    }
+
+    public void recordChunkResyncs(int chunks) {
+        chunkResyncs.add(chunks);
+    }
+
+    public long getChunkResyncs() {
+        return chunkResyncs.sum();
+    }
+
+    public long getResets(ResetBackend backend) {
+        return counters.get(backend).resets.sum();
+    }
+
+    public long getBlocks(ResetBackend backend) {
+        return counters.get(backend).blocks.sum();
+    }
+
+    public long getNanos(ResetBackend backend) {
+        return counters.get(backend).nanos.sum();
+    }
+
+    public LatencyHistogram getDurations(ResetBackend backend) {
+        return counters.get(backend).durations;
+    }
+
+    public double getAverageMillis(ResetBackend backend) {
+        long resets = getResets(backend);
+        return resets == 0 ? 0 : getNanos(backend) / 1_000_000.0 / resets;
+    }
+
+    public double getBlocksPerMillisecond(ResetBackend backend) {
+        long nanos = getNanos(backend);
+        return nanos == 0 ? 0 : getBlocks(backend) / (nanos / 1_000_000.0);
+    }
+
+    private static final class Counters {
+        private final LongAdder resets = new LongAdder();
+        private final LongAdder blocks = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+        private final LatencyHistogram durations = new LatencyHistogram();
+    }
+}
@@ -0,0 +1,130 @@
+package dev.silentbit.axolotMine.models;
+
+import org.bukkit.Material;
+import org.bukkit.block.data.BlockData;
+
+import java.util.*;
+
+/**
+ * A composition together with the palette and sampling table built from it.
+ *
+ * Named profiles are defined in the profiles section of config.yml and the
+ * same instance is shared by every mine that references one. A mine without
+ * a profile owns an unnamed one. The composition and its tables are replaced
+ * as a single {@link Sampler}, so an edit reaches all referencing mines at
+ * once and no reader sees the palette of one edit with the weights of another.
+ */
+public class CompositionProfile {
+
+    private final String name;
+    private volatile Sampler sampler;
+
+    /**
+     * @param name the profile name, or null for a mine's own composition
+     */
+    public CompositionProfile(String name, Map<Material, Double> composition) {
+        this.name = name;
+        this.sampler = new Sampler(composition);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isShared() {
+        return name != null;
+    }
+
+    public Sampler getSampler() {
+        return sampler;
+    }
+
+    /**
+     * Read-only view of the current composition.
+     */
+    public Map<Material, Double> getComposition() {
+        return sampler.getComposition();
+    }
+
+    /**
+     * Replaces the composition, returns false if it did not change.
+     */
+    public boolean setComposition(Map<Material, Double> composition) {
+        if (sampler.getComposition().equals(composition)) return false;
+
+        this.sampler = new Sampler(composition);
+        return true;
+    }
+
+    /**
+     * An immutable composition with the block palette and the weighted lookup
+     * table layouts are sampled from, both in {@link Material} order. Built once and shared by every layout
+     * generated from it; neither array may be modified.
+     */
+    public static final class Sampler {
+
+        private final Map<Material, Double> composition;
+        private final BlockData[] palette;
+        private final int[] slots;
+
+        private Sampler(Map<Material, Double> composition) {
+            // Material order, not the caller's hash order, so a seed gives the same
+            // layout after a restart and on every server
+            Map<Material, Double> ordered = new EnumMap<>(Material.class);
+            ordered.putAll(composition);
+
+            this.composition = Collections.unmodifiableMap(ordered);
+            this.palette = buildPalette(ordered);
+            this.slots = buildSlots(ordered, palette);
+        }
+
+        public Map<Material, Double> getComposition() {
+            return composition;
+        }
+
+        public BlockData[] getPalette() {
+            return palette;
+        }
+
+        public int[] getSlots() {
+            return slots;
+        }
+
+        private static BlockData[] buildPalette(Map<Material, Double> composition) {
+            List<BlockData> palette = new ArrayList<>();
+            for (Material material : composition.keySet()) {
+                if (material.isBlock()) {
+                    palette.add(material.createBlockData());
+                }
+            }
+
+            if (palette.isEmpty()) {
+                palette.add(Material.STONE.createBlockData());
+            }
+
+            return palette.toArray(new BlockData[0]);
+        }
+
+        /**
+         * Builds the weighted lookup table used for sampling: every palette index
+         * appears once per whole percent of its material in the composition.
+         */
+        private static int[] buildSlots(Map<Material, Double> composition, BlockData[] palette) {
+            List<Integer> slots = new ArrayList<>();
+
+            for (int i = 0; i < palette.length; i++) {
+                Double percentage = composition.get(palette[i].getMaterial());
+                int count = percentage != null ? (int) Math.round(percentage) : 0;
+                for (int j = 0; j < count; j++) {
+                    slots.add(i);
+                }
+            }
+
+            if (slots.isEmpty()) {
+                slots.add(0);
+            }
+
+            return slots.stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+}
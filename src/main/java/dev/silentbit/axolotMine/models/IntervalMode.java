@@ -0,0 +1,26 @@
+package dev.silentbit.axolotMine.models;
+
+/**
+ * How the time between two resets of a mine is chosen.
+ */
+public enum IntervalMode {
+
+    /** Always wait the configured reset interval. */
+    FIXED,
+
+    /** Follow the measured break rate between the mine's min and max interval. */
+    ADAPTIVE,
+
+    /** Reset at the wall-clock times of the mine's cron schedule. */
+    SCHEDULE;
+
+    public static IntervalMode fromString(String value, IntervalMode fallback) {
+        if (value == null) return fallback;
+
+        try {
+            return valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return fallback;
+        }
+    }
+}
@@ -1,10 +1,16 @@
 package dev.silentbit.axolotMine.models;
 
+import dev.silentbit.axolotMine.utils.RandomUtil;
 import org.bukkit.Location;
 import org.bukkit.Material;
+import org.bukkit.World;
 
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 public class Mine {
 
@@ -13,10 +19,24 @@ public class Mine {
     private final Location pos1;
     private final Location pos2;
     private int resetInterval;
-    private final Map<Material, Double> composition;
-    private long lastReset;
-    private long nextReset;
+    private volatile CompositionProfile profile;
+    private volatile long lastReset;
+    private volatile long nextReset;
+    private volatile long resetStarted; // 0 while no reset is running
     private Location spawnPoint; // NEW: Safe spawn/teleport point
+    private SeedPolicy seedPolicy;
+    private ResetMode resetMode;
+    private long seed;
+    private final AtomicLong resetCount; // Bumped from region and layout threads
+    private volatile boolean resetPending;
+    private IntervalMode intervalMode;
+    private volatile ResetSchedule schedule;
+    private int minInterval;
+    private int maxInterval;
+    private volatile int adaptiveInterval;
+    private volatile double breakRate; // smoothed blocks broken per second
+    private final LongAdder breaks;
+    private volatile Map<Material, Long> placedBlocks = Map.of(); // What the last reset actually wrote
 
     public Mine(String name, String worldName, Location pos1, Location pos2,
                 int resetInterval, Map<Material, Double> composition) {
@@ -25,10 +45,17 @@ public class Mine {
         this.pos1 = pos1;
         this.pos2 = pos2;
         this.resetInterval = resetInterval;
-        this.composition = new HashMap<>(composition);
+        this.profile = new CompositionProfile(null, composition);
         this.lastReset = System.currentTimeMillis();
         this.nextReset = lastReset + (resetInterval * 1000L);
         this.spawnPoint = null; // Will be set by admin using /am settp
+        this.seedPolicy = SeedPolicy.RANDOM;
+        this.resetMode = ResetMode.RANDOM;
+        this.seed = ThreadLocalRandom.current().nextLong();
+        this.resetCount = new AtomicLong();
+        this.intervalMode = IntervalMode.FIXED;
+        this.adaptiveInterval = resetInterval;
+        this.breaks = new LongAdder();
     }
 
     public String getName() {
@@ -47,16 +74,67 @@ public class Mine {
         return pos2;
     }
 
+    /**
+     * Whether the mine's world was loaded when the mine was read. Mines without
+     * one wait until {@link #bindWorld(World)} is called for it.
+     */
+    public boolean hasWorld() {
+        return pos1.getWorld() != null;
+    }
+
+    /**
+     * Attaches the mine's locations to its world once that world has loaded.
+     */
+    public void bindWorld(World world) {
+        pos1.setWorld(world);
+        pos2.setWorld(world);
+        if (spawnPoint != null) {
+            spawnPoint.setWorld(world);
+        }
+    }
+
     public int getResetInterval() {
         return resetInterval;
     }
 
     public void setResetInterval(int resetInterval) {
         this.resetInterval = resetInterval;
+        retime();
     }
 
+    /**
+     * Copy of the composition, in material order like the sampler built from it.
+     */
     public Map<Material, Double> getComposition() {
-        return new HashMap<>(composition);
+        Map<Material, Double> composition = new EnumMap<>(Material.class);
+        composition.putAll(profile.getComposition());
+        return composition;
+    }
+
+    /**
+     * Gives the mine its own composition, detaching it from a shared profile.
+     * Readers see either the old or the new one.
+     */
+    public void setComposition(Map<Material, Double> composition) {
+        this.profile = new CompositionProfile(null, composition);
+    }
+
+    public CompositionProfile getProfile() {
+        return profile;
+    }
+
+    /**
+     * Makes the mine follow a shared profile, including later edits of it.
+     */
+    public void setProfile(CompositionProfile profile) {
+        this.profile = profile;
+    }
+
+    /**
+     * The composition with its palette and sampling table, built once per edit.
+     */
+    public CompositionProfile.Sampler getSampler() {
+        return profile.getSampler();
     }
 
     public long getLastReset() {
@@ -65,7 +143,169 @@ public class Mine {
 
     public void setLastReset(long lastReset) {
         this.lastReset = lastReset;
-        this.nextReset = lastReset + (resetInterval * 1000L);
+        retime();
+    }
+
+    /**
+     * Marks a reset as started. The next reset is timed from now on, while
+     * {@link #getLastReset()} only moves once the reset completed.
+     */
+    public void beginReset(long startedAt) {
+        this.resetStarted = startedAt;
+        this.nextReset = nextAfter(startedAt);
+    }
+
+    /**
+     * Publishes a finished reset. The last reset is the time it started, so
+     * the interval does not drift by the time the writes took.
+     */
+    public void completeReset(long startedAt) {
+        this.lastReset = Math.max(lastReset, startedAt);
+        this.resetStarted = 0;
+    }
+
+    /**
+     * Forgets a reset that failed, keeping the last successful one.
+     */
+    public void abortReset() {
+        this.resetStarted = 0;
+    }
+
+    public boolean isResetting() {
+        return resetStarted != 0;
+    }
+
+    /**
+     * Gets the interval in seconds the next reset is timed with. For adaptive
+     * mines this follows the measured break rate.
+     */
+    public int getCurrentInterval() {
+        switch (intervalMode) {
+            case ADAPTIVE:
+                return adaptiveInterval;
+            case SCHEDULE:
+                // The gap to the next scheduled time, which varies for irregular schedules
+                long anchor = Math.max(lastReset, resetStarted);
+                return (int) Math.max(1, (nextReset - anchor) / 1000);
+            default:
+                return resetInterval;
+        }
+    }
+
+    public IntervalMode getIntervalMode() {
+        return intervalMode;
+    }
+
+    public void setIntervalMode(IntervalMode intervalMode) {
+        this.intervalMode = intervalMode;
+        retime();
+    }
+
+    public ResetSchedule getSchedule() {
+        return schedule;
+    }
+
+    /**
+     * Sets the wall-clock schedule used in {@link IntervalMode#SCHEDULE} mode.
+     */
+    public void setSchedule(ResetSchedule schedule) {
+        this.schedule = schedule;
+        retime();
+    }
+
+    public int getMinInterval() {
+        return minInterval;
+    }
+
+    public int getMaxInterval() {
+        return maxInterval;
+    }
+
+    public void setIntervalBounds(int minInterval, int maxInterval) {
+        this.minInterval = minInterval;
+        this.maxInterval = maxInterval;
+    }
+
+    public int getAdaptiveInterval() {
+        return adaptiveInterval;
+    }
+
+    public void setAdaptiveInterval(int adaptiveInterval) {
+        this.adaptiveInterval = adaptiveInterval;
+        retime();
+    }
+
+    public double getBreakRate() {
+        return breakRate;
+    }
+
+    public void setBreakRate(double breakRate) {
+        this.breakRate = breakRate;
+    }
+
+    /**
+     * Blocks per material written by the last completed reset, empty before the first one.
+     */
+    public Map<Material, Long> getPlacedBlocks() {
+        return placedBlocks;
+    }
+
+    public void setPlacedBlocks(Map<Material, Long> placedBlocks) {
+        this.placedBlocks = Collections.unmodifiableMap(placedBlocks);
+    }
+
+    /**
+     * Share of a material in the last reset in percent, or -1 before the first reset.
+     */
+    public double getPlacedPercentage(Material material) {
+        Map<Material, Long> placed = placedBlocks;
+        long total = 0;
+        for (long count : placed.values()) {
+            total += count;
+        }
+        if (total == 0) return -1;
+
+        return placed.getOrDefault(material, 0L) * 100.0 / total;
+    }
+
+    /**
+     * Counts a block broken inside the mine. Safe to call from any region thread.
+     */
+    public void recordBreak() {
+        breaks.increment();
+    }
+
+    /**
+     * Gets the blocks broken since the last call and starts counting from zero.
+     */
+    public long drainBreaks() {
+        return breaks.sumThenReset();
+    }
+
+    public boolean contains(Location location) {
+        if (location.getWorld() == null || !location.getWorld().getName().equals(worldName)) {
+            return false;
+        }
+
+        int x = location.getBlockX();
+        int y = location.getBlockY();
+        int z = location.getBlockZ();
+        return x >= Math.min(pos1.getBlockX(), pos2.getBlockX()) && x <= Math.max(pos1.getBlockX(), pos2.getBlockX())
+                && y >= Math.min(pos1.getBlockY(), pos2.getBlockY()) && y <= Math.max(pos1.getBlockY(), pos2.getBlockY())
+                && z >= Math.min(pos1.getBlockZ(), pos2.getBlockZ()) && z <= Math.max(pos1.getBlockZ(), pos2.getBlockZ());
+    }
+
+    // A running reset already counts for the next one
+    private void retime() {
+        this.nextReset = nextAfter(Math.max(lastReset, resetStarted));
+    }
+
+    private long nextAfter(long anchor) {
+        if (intervalMode == IntervalMode.SCHEDULE && schedule != null) {
+            return schedule.next(anchor);
+        }
+        int interval = intervalMode == IntervalMode.ADAPTIVE ? adaptiveInterval : resetInterval;
+        return anchor + interval * 1000L;
     }
 
     public long getNextReset() {
@@ -90,6 +330,18 @@ public class Mine {
         }
     }
 
+    /**
+     * Whether both mines are in the same world and cover at least one common chunk.
+     */
+    public boolean sharesChunkWith(Mine other) {
+        if (!worldName.equals(other.worldName)) return false;
+
+        return Math.min(pos1.getBlockX(), pos2.getBlockX()) >> 4 <= Math.max(other.pos1.getBlockX(), other.pos2.getBlockX()) >> 4
+                && Math.min(other.pos1.getBlockX(), other.pos2.getBlockX()) >> 4 <= Math.max(pos1.getBlockX(), pos2.getBlockX()) >> 4
+                && Math.min(pos1.getBlockZ(), pos2.getBlockZ()) >> 4 <= Math.max(other.pos1.getBlockZ(), other.pos2.getBlockZ()) >> 4
+                && Math.min(other.pos1.getBlockZ(), other.pos2.getBlockZ()) >> 4 <= Math.max(pos1.getBlockZ(), pos2.getBlockZ()) >> 4;
+    }
+
     public int getBlockCount() {
         int minX = Math.min(pos1.getBlockX(), pos2.getBlockX());
         int maxX = Math.max(pos1.getBlockX(), pos2.getBlockX());
@@ -129,6 +381,68 @@ public class Mine {
         return spawnPoint != null;
     }
 
+    public ResetMode getResetMode() {
+        return resetMode;
+    }
+
+    public void setResetMode(ResetMode resetMode) {
+        this.resetMode = resetMode;
+    }
+
+    /**
+     * Whether a reset was deferred until the mine's chunks are loaded again.
+     */
+    public boolean isResetPending() {
+        return resetPending;
+    }
+
+    public void setResetPending(boolean resetPending) {
+        this.resetPending = resetPending;
+    }
+
+    public SeedPolicy getSeedPolicy() {
+        return seedPolicy;
+    }
+
+    public void setSeedPolicy(SeedPolicy seedPolicy) {
+        this.seedPolicy = seedPolicy;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public long getResetCount() {
+        return resetCount.get();
+    }
+
+    public void setResetCount(long resetCount) {
+        this.resetCount.set(resetCount);
+    }
+
+    public void incrementResetCount() {
+        resetCount.incrementAndGet();
+    }
+
+    /**
+     * Gets the seed the next reset will use under this mine's seed policy.
+     * For RANDOM every call returns a new seed.
+     */
+    public long getNextSeed() {
+        switch (seedPolicy) {
+            case FIXED:
+                return seed;
+            case ROTATING:
+                return RandomUtil.rotate(seed, resetCount.get());
+            default:
+                return ThreadLocalRandom.current().nextLong();
+        }
+    }
+
     /**
      * Gets the safe teleport location for this mine.
      * Returns spawn point if set, otherwise returns center above mine.
@@ -0,0 +1,384 @@
+package dev.silentbit.axolotMine.models;
+
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.block.data.BlockData;
+
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * A prepared block layout for a mine, split into chunk sections.
+ * Each section stores a small palette plus packed indices, so the region
+ * thread only has to copy data into the world during a reset.
+ */
+public class MineLayout {
+
+    /**
+     * Receives every block of the layout in section order.
+     */
+    public interface BlockConsumer {
+        void accept(int x, int y, int z, BlockData data);
+    }
+
+    /**
+     * The part of the mine that falls inside one 16x16x16 chunk section.
+     */
+    public static final class Section {
+
+        private final int chunkX;
+        private final int sectionY;
+        private final int chunkZ;
+        private final int minX, minY, minZ;
+        private final int sizeX, sizeY, sizeZ;
+        private final int[] palette; // local slot -> layout palette index
+        private final int bits;
+        private final int offset; // first long of this section in the data buffer
+
+        public Section(int chunkX, int sectionY, int chunkZ,
+                       int minX, int minY, int minZ, int maxX, int maxY, int maxZ,
+                       int[] palette, int offset) {
+            this.chunkX = chunkX;
+            this.sectionY = sectionY;
+            this.chunkZ = chunkZ;
+            this.minX = minX;
+            this.minY = minY;
+            this.minZ = minZ;
+            this.sizeX = maxX - minX + 1;
+            this.sizeY = maxY - minY + 1;
+            this.sizeZ = maxZ - minZ + 1;
+            this.palette = palette;
+            this.bits = bitsFor(palette.length);
+            this.offset = offset;
+        }
+
+        public int getChunkX() {
+            return chunkX;
+        }
+
+        public int getSectionY() {
+            return sectionY;
+        }
+
+        public int getChunkZ() {
+            return chunkZ;
+        }
+
+        public int getMinX() {
+            return minX;
+        }
+
+        public int getMinY() {
+            return minY;
+        }
+
+        public int getMinZ() {
+            return minZ;
+        }
+
+        public int getSizeX() {
+            return sizeX;
+        }
+
+        public int getSizeY() {
+            return sizeY;
+        }
+
+        public int getSizeZ() {
+            return sizeZ;
+        }
+
+        public int getVolume() {
+            return sizeX * sizeY * sizeZ;
+        }
+
+        public int[] getPalette() {
+            return palette;
+        }
+
+        public int getBits() {
+            return bits;
+        }
+
+        public int getOffset() {
+            return offset;
+        }
+
+        /**
+         * Number of longs needed to hold this section's packed indices.
+         */
+        public int getLongCount() {
+            return longsFor(getVolume(), bits);
+        }
+
+        /**
+         * Index of a block inside this section (x fastest, then z, then y).
+         */
+        public int indexOf(int x, int y, int z) {
+            return ((y - minY) * sizeZ + (z - minZ)) * sizeX + (x - minX);
+        }
+    }
+
+    private final String worldName;
+    private final int minX, minY, minZ, maxX, maxY, maxZ;
+    private final BlockData[] palette;
+    private final List<Section> sections;
+    private final LongBuffer data;
+    private final Map<Material, Double> composition;
+    private final long seed;
+    private final long[] placed; // Blocks handed out per palette entry, counted while writing
+
+    public MineLayout(String worldName, int minX, int minY, int minZ, int maxX, int maxY, int maxZ,
+                      BlockData[] palette, List<Section> sections, LongBuffer data,
+                      Map<Material, Double> composition, long seed) {
+        this.worldName = worldName;
+        this.minX = minX;
+        this.minY = minY;
+        this.minZ = minZ;
+        this.maxX = maxX;
+        this.maxY = maxY;
+        this.maxZ = maxZ;
+        this.palette = palette;
+        this.sections = Collections.unmodifiableList(sections);
+        this.data = data;
+        this.composition = composition;
+        this.seed = seed;
+        this.placed = new long[palette.length];
+    }
+
+    /**
+     * Splits the cuboid of a mine into chunk sections that all share the same palette
+     * and allocates the packed index storage, either on or off heap.
+     */
+    public static MineLayout allocate(Mine mine, BlockData[] palette, Map<Material, Double> composition,
+                                      long seed, boolean offHeap) {
+        Location pos1 = mine.getPos1();
+        Location pos2 = mine.getPos2();
+
+        int minX = Math.min(pos1.getBlockX(), pos2.getBlockX());
+        int maxX = Math.max(pos1.getBlockX(), pos2.getBlockX());
+        int minY = Math.min(pos1.getBlockY(), pos2.getBlockY());
+        int maxY = Math.max(pos1.getBlockY(), pos2.getBlockY());
+        int minZ = Math.min(pos1.getBlockZ(), pos2.getBlockZ());
+        int maxZ = Math.max(pos1.getBlockZ(), pos2.getBlockZ());
+
+        int[] identity = new int[palette.length];
+        for (int i = 0; i < identity.length; i++) {
+            identity[i] = i;
+        }
+
+        List<Section> sections = split(minX, minY, minZ, maxX, maxY, maxZ, index -> identity);
+        return new MineLayout(mine.getWorldName(), minX, minY, minZ, maxX, maxY, maxZ,
+                palette, sections, allocateLongs(totalLongs(sections), offHeap), composition, seed);
+    }
+
+    /**
+     * Splits a cuboid into chunk sections in storage order (x, then z, then y).
+     * The local palette of the n-th section is supplied by {@code palettes}.
+     */
+    public static List<Section> split(int minX, int minY, int minZ, int maxX, int maxY, int maxZ,
+                                      IntFunction<int[]> palettes) {
+        List<Section> sections = new ArrayList<>();
+        int offset = 0;
+        for (int cx = minX >> 4; cx <= maxX >> 4; cx++) {
+            for (int cz = minZ >> 4; cz <= maxZ >> 4; cz++) {
+                for (int sy = minY >> 4; sy <= maxY >> 4; sy++) {
+                    Section section = new Section(cx, sy, cz,
+                            Math.max(minX, cx << 4), Math.max(minY, sy << 4), Math.max(minZ, cz << 4),
+                            Math.min(maxX, (cx << 4) + 15), Math.min(maxY, (sy << 4) + 15), Math.min(maxZ, (cz << 4) + 15),
+                            palettes.apply(sections.size()), offset);
+                    sections.add(section);
+                    offset += section.getLongCount();
+                }
+            }
+        }
+        return sections;
+    }
+
+    public static int totalLongs(List<Section> sections) {
+        if (sections.isEmpty()) return 0;
+        Section last = sections.get(sections.size() - 1);
+        return last.getOffset() + last.getLongCount();
+    }
+
+    /**
+     * Packs local palette slots into longs using the given number of bits per entry.
+     */
+    public static long[] pack(int[] slots, int count, int bits) {
+        long[] words = new long[longsFor(count, bits)];
+        if (bits == 0) return words;
+
+        int perLong = 64 / bits;
+        for (int i = 0; i < count; i++) {
+            words[i / perLong] |= (long) slots[i] << ((i % perLong) * bits);
+        }
+        return words;
+    }
+
+    /**
+     * Allocates storage for {@code longs} packed longs, off heap for very large mines.
+     */
+    public static LongBuffer allocateLongs(int longs, boolean offHeap) {
+        int bytes = Math.max(1, longs) * Long.BYTES;
+        return offHeap ? ByteBuffer.allocateDirect(bytes).asLongBuffer() : LongBuffer.allocate(Math.max(1, longs));
+    }
+
+    public static int bitsFor(int paletteSize) {
+        // A single-entry palette needs no index storage at all
+        return paletteSize <= 1 ? 0 : 32 - Integer.numberOfLeadingZeros(paletteSize - 1);
+    }
+
+    public static int longsFor(int entries, int bits) {
+        if (bits == 0) return 0;
+        int perLong = 64 / bits;
+        return (entries + perLong - 1) / perLong;
+    }
+
+    /**
+     * Reads the local palette slot stored at {@code index} of the given section.
+     */
+    public int get(Section section, int index) {
+        int bits = section.getBits();
+        if (bits == 0) return 0;
+
+        int perLong = 64 / bits;
+        long word = data.get(section.getOffset() + index / perLong);
+        return (int) ((word >>> ((index % perLong) * bits)) & ((1L << bits) - 1));
+    }
+
+    /**
+     * Writes a whole long of packed slots for the given section. Sections never
+     * share a long, so different sections can be filled from different threads.
+     */
+    public void putLong(Section section, int longIndex, long word) {
+        data.put(section.getOffset() + longIndex, word);
+    }
+
+    /**
+     * Walks every block of the layout section by section.
+     */
+    public void forEachBlock(BlockConsumer consumer) {
+        for (Section section : sections) {
+            forEachBlock(section, consumer);
+        }
+    }
+
+    /**
+     * Walks every block of a single section. The blocks handed out are counted
+     * per palette entry, see {@link #getPlacedCounts()}.
+     */
+    public void forEachBlock(Section section, BlockConsumer consumer) {
+        int[] local = section.getPalette();
+        int[] counts = new int[local.length];
+        int maxX = section.getMinX() + section.getSizeX();
+        int maxY = section.getMinY() + section.getSizeY();
+        int maxZ = section.getMinZ() + section.getSizeZ();
+
+        int index = 0;
+        for (int y = section.getMinY(); y < maxY; y++) {
+            for (int z = section.getMinZ(); z < maxZ; z++) {
+                for (int x = section.getMinX(); x < maxX; x++) {
+                    int slot = get(section, index++);
+                    counts[slot]++;
+                    consumer.accept(x, y, z, palette[local[slot]]);
+                }
+            }
+        }
+
+        // Sections of one layout can be written from different region threads
+        synchronized (placed) {
+            for (int slot = 0; slot < local.length; slot++) {
+                placed[local[slot]] += counts[slot];
+            }
+        }
+    }
+
+    /**
+     * Returns how many blocks of each material have been written from this layout so far.
+     */
+    public Map<Material, Long> getPlacedCounts() {
+        Map<Material, Long> counts = new EnumMap<>(Material.class);
+        synchronized (placed) {
+            for (int i = 0; i < palette.length; i++) {
+                if (placed[i] > 0) {
+                    counts.merge(palette[i].getMaterial(), placed[i], Long::sum);
+                }
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Checks whether this layout was generated for the mine's current region and composition.
+     */
+    public boolean matches(Mine mine) {
+        Location pos1 = mine.getPos1();
+        Location pos2 = mine.getPos2();
+
+        return worldName.equals(mine.getWorldName())
+                && minX == Math.min(pos1.getBlockX(), pos2.getBlockX())
+                && maxX == Math.max(pos1.getBlockX(), pos2.getBlockX())
+                && minY == Math.min(pos1.getBlockY(), pos2.getBlockY())
+                && maxY == Math.max(pos1.getBlockY(), pos2.getBlockY())
+                && minZ == Math.min(pos1.getBlockZ(), pos2.getBlockZ())
+                && maxZ == Math.max(pos1.getBlockZ(), pos2.getBlockZ())
+                && (composition == null || composition.equals(mine.getSampler().getComposition()));
+    }
+
+    public String getWorldName() {
+        return worldName;
+    }
+
+    public BlockData[] getPalette() {
+        return palette;
+    }
+
+    public List<Section> getSections() {
+        return sections;
+    }
+
+    /**
+     * Seed the layout was sampled with, so a reset can be reproduced.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getMinX() {
+        return minX;
+    }
+
+    public int getMinY() {
+        return minY;
+    }
+
+    public int getMinZ() {
+        return minZ;
+    }
+
+    public int getMaxX() {
+        return maxX;
+    }
+
+    public int getMaxY() {
+        return maxY;
+    }
+
+    public int getMaxZ() {
+        return maxZ;
+    }
+
+    public int getBlockCount() {
+        return (maxX - minX + 1) * (maxY - minY + 1) * (maxZ - minZ + 1);
+    }
+
+    public boolean isOffHeap() {
+        return data.isDirect();
+    }
+}
@@ -0,0 +1,26 @@
+package dev.silentbit.axolotMine.models;
+
+/**
+ * How the blocks of a prepared layout are written into the world.
+ */
+public enum ResetBackend {
+
+    /** One Block#setBlockData call per block, lighting is updated block by block. */
+    BUKKIT,
+
+    /**
+     * A WorldEdit edit session with neighbour updates off and lighting delayed
+     * until the whole fill has been written, batched per chunk.
+     */
+    WORLDEDIT;
+
+    public static ResetBackend fromString(String value, ResetBackend fallback) {
+        if (value == null) return fallback;
+
+        try {
+            return valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return fallback;
+        }
+    }
+}
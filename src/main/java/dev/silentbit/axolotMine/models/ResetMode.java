@@ -0,0 +1,23 @@
+package dev.silentbit.axolotMine.models;
+
+/**
+ * Where the blocks of a reset come from.
+ */
+public enum ResetMode {
+
+    /** Sample every block from the mine's composition. */
+    RANDOM,
+
+    /** Copy the mine's saved snapshot back without any sampling. */
+    RESTORE;
+
+    public static ResetMode fromString(String value, ResetMode fallback) {
+        if (value == null) return fallback;
+
+        try {
+            return valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return fallback;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package dev.silentbit.axolotMine.models;
+
+/**
+ * Outcome of a reset, as returned by {@code MineManager.resetMine}.
+ */
+public final class ResetResult {
+
+    public enum Status {
+        /** Every block has been written. */
+        COMPLETED,
+        /**
+         * The mine's chunks were unloaded, its blocks are written once they load.
+         * Returned right away rather than when the last block is written, which
+         * may be much later; a MineResetCompleteEvent with a COMPLETED result is
+         * fired at that point.
+         */
+        DEFERRED,
+        /** A MinePreResetEvent listener cancelled the reset. */
+        CANCELLED
+    }
+
+    private final Mine mine;
+    private final Status status;
+    private final long startedAt;
+    private final long finishedAt;
+    private final long blocks;
+    private final long writeNanos;
+
+    private ResetResult(Mine mine, Status status, long startedAt, long finishedAt, long blocks, long writeNanos) {
+        this.mine = mine;
+        this.status = status;
+        this.startedAt = startedAt;
+        this.finishedAt = finishedAt;
+        this.blocks = blocks;
+        this.writeNanos = writeNanos;
+    }
+
+    public static ResetResult completed(Mine mine, long startedAt, long blocks, long writeNanos) {
+        return new ResetResult(mine, Status.COMPLETED, startedAt, System.currentTimeMillis(), blocks, writeNanos);
+    }
+
+    public static ResetResult deferred(Mine mine, long startedAt) {
+        return new ResetResult(mine, Status.DEFERRED, startedAt, startedAt, 0, 0);
+    }
+
+    public static ResetResult cancelled(Mine mine) {
+        long now = System.currentTimeMillis();
+        return new ResetResult(mine, Status.CANCELLED, now, now, 0, 0);
+    }
+
+    public Mine getMine() {
+        return mine;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public boolean isCompleted() {
+        return status == Status.COMPLETED;
+    }
+
+    public long getStartedAt() {
+        return startedAt;
+    }
+
+    public long getFinishedAt() {
+        return finishedAt;
+    }
+
+    /**
+     * Wall time from the start of the reset until its last block, including
+     * chunk loading and ticks a throttled reset waited.
+     */
+    public long getDurationMillis() {
+        return finishedAt - startedAt;
+    }
+
+    public long getBlocks() {
+        return blocks;
+    }
+
+    /**
+     * Time spent writing blocks only.
+     */
+    public long getWriteNanos() {
+        return writeNanos;
+    }
+}
@@ -0,0 +1,203 @@
+package dev.silentbit.axolotMine.models;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * A wall-clock reset schedule in cron syntax:
+ * {@code minute hour day-of-month month day-of-week}. Every field accepts
+ * {@code *}, numbers, ranges {@code a-b}, lists {@code a,b} and steps
+ * {@code a-b/n}, where a step on {@code *} covers the whole field; so
+ * {@code 0,15,30,45 * * * *} can be written with a step of 15 on the
+ * minute field. Day of week runs from 0 (Sunday) to 7
+ * (Sunday again). As in cron, a day matches if either day field does when
+ * both are restricted.
+ *
+ * Around daylight saving changes the schedule behaves like cron: a time
+ * skipped when clocks go forward runs right after the jump, and a time
+ * repeated when they go back runs once, unless the hour field is a wildcard
+ * or step on {@code *}, which then follows the real hours.
+ */
+public final class ResetSchedule {
+
+    private final String source;
+    private final ZoneId zone;
+    private final long minutes;
+    private final long hours;
+    private final long days;
+    private final long months;
+    private final long weekdays;
+    private final boolean anyDay;
+    private final boolean anyWeekday;
+    private final boolean everyHour;
+
+    private ResetSchedule(String source, String expression, ZoneId zone) {
+        String[] fields = expression.trim().split("\\s+");
+        if (fields.length != 5) {
+            throw new IllegalArgumentException("expected 5 fields, got " + fields.length + ": " + expression);
+        }
+
+        this.source = source;
+        this.zone = zone;
+        this.minutes = parseField(fields[0], 0, 59);
+        this.hours = parseField(fields[1], 0, 23);
+        this.days = parseField(fields[2], 1, 31);
+        this.months = parseField(fields[3], 1, 12);
+
+        long weekdays = parseField(fields[4], 0, 7);
+        if ((weekdays & (1L << 7)) != 0) {
+            weekdays |= 1L; // 7 is Sunday as well
+        }
+        this.weekdays = weekdays;
+        this.anyDay = fields[2].equals("*");
+        this.anyWeekday = fields[4].equals("*");
+        this.everyHour = fields[1].startsWith("*");
+    }
+
+    /**
+     * @param source     what the schedule was configured as, kept for saving
+     *                   (a named schedule stays a reference to its name)
+     * @param expression the cron expression itself
+     */
+    public static ResetSchedule parse(String source, String expression, ZoneId zone) {
+        return new ResetSchedule(source, expression, zone);
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * Returns the first matching minute strictly after the given time.
+     */
+    public long next(long afterMillis) {
+        ZonedDateTime after = Instant.ofEpochMilli(afterMillis).atZone(zone).truncatedTo(ChronoUnit.MINUTES);
+        ZonedDateTime time = after.plusMinutes(1);
+        if (skippedMatch(after.toLocalDateTime().plusMinutes(1), time)) {
+            return time.toInstant().toEpochMilli();
+        }
+
+        // Skips whole months, days and hours that cannot match, so even
+        // yearly schedules only take a few hundred steps. Minutes and hours
+        // step in real time so a repeated hour is visited, days and months
+        // step on the wall clock
+        for (int steps = 0; steps < 100_000; steps++) {
+            LocalDateTime local = time.toLocalDateTime();
+            LocalDateTime target;
+            ZonedDateTime next;
+            if (!matches(months, local.getMonthValue())) {
+                target = local.withDayOfMonth(1).truncatedTo(ChronoUnit.DAYS).plusMonths(1);
+                next = target.atZone(zone);
+            } else if (!matchesDay(local)) {
+                target = local.truncatedTo(ChronoUnit.DAYS).plusDays(1);
+                next = target.atZone(zone);
+            } else if (!matches(hours, local.getHour()) || (!everyHour && isRepeated(time))) {
+                target = local.truncatedTo(ChronoUnit.HOURS).plusHours(1);
+                next = time.truncatedTo(ChronoUnit.HOURS).plusHours(1);
+            } else if (!matches(minutes, local.getMinute())) {
+                target = local.plusMinutes(1);
+                next = time.plusMinutes(1);
+            } else {
+                return time.toInstant().toEpochMilli();
+            }
+
+            if (skippedMatch(target, next)) {
+                return next.toInstant().toEpochMilli();
+            }
+            time = next;
+        }
+
+        throw new IllegalStateException("schedule " + source + " never matches");
+    }
+
+    /**
+     * Whether clocks jumped forward past {@code target} on the way to
+     * {@code next} and a skipped wall-clock minute would have matched.
+     */
+    private boolean skippedMatch(LocalDateTime target, ZonedDateTime next) {
+        LocalDateTime reached = next.toLocalDateTime();
+        for (LocalDateTime skipped = target; skipped.isBefore(reached); skipped = skipped.plusMinutes(1)) {
+            if (matches(months, skipped.getMonthValue()) && matchesDay(skipped)
+                    && matches(hours, skipped.getHour()) && matches(minutes, skipped.getMinute())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether the time is the second pass through an hour repeated when clocks go back.
+     */
+    private static boolean isRepeated(ZonedDateTime time) {
+        return !time.equals(time.withEarlierOffsetAtOverlap());
+    }
+
+    private boolean matchesDay(LocalDateTime time) {
+        boolean day = matches(days, time.getDayOfMonth());
+        boolean weekday = matches(weekdays, time.getDayOfWeek().getValue() % 7);
+
+        if (anyDay) return weekday;
+        if (anyWeekday) return day;
+        return day || weekday;
+    }
+
+    private static boolean matches(long mask, int value) {
+        return (mask & (1L << value)) != 0;
+    }
+
+    private static long parseField(String field, int min, int max) {
+        long mask = 0;
+        for (String part : field.split(",")) {
+            int step = 1;
+            int slash = part.indexOf('/');
+            if (slash >= 0) {
+                step = parseNumber(part.substring(slash + 1), 1, max - min + 1);
+                part = part.substring(0, slash);
+            }
+
+            int from;
+            int to;
+            if (part.equals("*")) {
+                from = min;
+                to = max;
+            } else if (part.indexOf('-') > 0) {
+                int dash = part.indexOf('-');
+                from = parseNumber(part.substring(0, dash), min, max);
+                to = parseNumber(part.substring(dash + 1), min, max);
+            } else {
+                from = parseNumber(part, min, max);
+                to = slash >= 0 ? max : from; // "5/10" means from 5 on
+            }
+
+            if (from > to) {
+                throw new IllegalArgumentException("empty range " + part);
+            }
+            for (int value = from; value <= to; value += step) {
+                mask |= 1L << value;
+            }
+        }
+        return mask;
+    }
+
+    private static int parseNumber(String value, int min, int max) {
+        int number;
+        try {
+            number = Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("not a number: " + value);
+        }
+
+        if (number < min || number > max) {
+            throw new IllegalArgumentException(number + " is outside " + min + "-" + max);
+        }
+        return number;
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+}
@@ -0,0 +1,26 @@
+package dev.silentbit.axolotMine.models;
+
+/**
+ * How the random seed of a mine's layout is chosen for each reset.
+ */
+public enum SeedPolicy {
+
+    /** Every reset uses the mine's seed, so every layout is identical. */
+    FIXED,
+
+    /** Each reset derives its seed from the mine's seed and the reset count. */
+    ROTATING,
+
+    /** Each reset draws a fresh seed. */
+    RANDOM;
+
+    public static SeedPolicy fromString(String value, SeedPolicy fallback) {
+        if (value == null) return fallback;
+
+        try {
+            return valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return fallback;
+        }
+    }
+}
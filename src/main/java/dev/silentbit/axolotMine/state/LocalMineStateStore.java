@@ -0,0 +1,80 @@
+package dev.silentbit.axolotMine.state;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stand-in store for a single server. Keeps everything in memory, owns every
+ * mine and never receives changes from anyone else.
+ */
+public class LocalMineStateStore implements MineStateStore {
+
+    private final String serverId;
+    private final Map<String, String> definitions;
+    private final Map<String, Long> lastResets;
+
+    public LocalMineStateStore(String serverId) {
+        this.serverId = serverId;
+        this.definitions = new ConcurrentHashMap<>();
+        this.lastResets = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public void start(Listener listener) {
+    }
+
+    @Override
+    public void shutdown() {
+        definitions.clear();
+        lastResets.clear();
+    }
+
+    @Override
+    public CompletableFuture<Void> refreshOwnership() {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public boolean isOwner(String mineName) {
+        return true;
+    }
+
+    @Override
+    public CompletableFuture<Set<String>> getMineNames() {
+        return CompletableFuture.completedFuture(new HashSet<>(definitions.keySet()));
+    }
+
+    @Override
+    public CompletableFuture<String> getDefinition(String mineName) {
+        return CompletableFuture.completedFuture(definitions.get(mineName));
+    }
+
+    @Override
+    public CompletableFuture<Long> getLastReset(String mineName) {
+        return CompletableFuture.completedFuture(lastResets.getOrDefault(mineName, 0L));
+    }
+
+    @Override
+    public void publishDefinition(String mineName, String definition) {
+        definitions.put(mineName, definition);
+    }
+
+    @Override
+    public void publishReset(String mineName, long timestamp) {
+        lastResets.put(mineName, timestamp);
+    }
+
+    @Override
+    public void removeDefinition(String mineName) {
+        definitions.remove(mineName);
+        lastResets.remove(mineName);
+    }
+
+    @Override
+    public String getServerId() {
+        return serverId;
+    }
+}
@@ -0,0 +1,77 @@
+package dev.silentbit.axolotMine.state;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Shared state of mines across servers that run the same mine worlds.
+ *
+ * The YAML files stay the local source of truth; a store shares the mine
+ * definitions and reset timestamps between servers and decides which server
+ * owns the reset schedule of each mine. Reads are cached by the store and
+ * changes made by other servers arrive as invalidations through the listener.
+ */
+public interface MineStateStore {
+
+    /**
+     * What another server changed about a mine.
+     */
+    enum Change {
+        RESET,
+        DEFINITION,
+        REMOVED
+    }
+
+    /**
+     * Receives changes made by other servers. Called from the store's own
+     * thread, implementations have to hop to a server thread themselves.
+     */
+    interface Listener {
+
+        void onInvalidate(String mineName, Change change);
+
+        /**
+         * Names of the mines loaded on this server, which it may own.
+         */
+        Collection<String> getLocalMines();
+    }
+
+    void start(Listener listener);
+
+    void shutdown();
+
+    /**
+     * Claims or renews ownership of the local mines now instead of waiting for
+     * the next renewal.
+     */
+    CompletableFuture<Void> refreshOwnership();
+
+    /**
+     * Whether this server runs the reset schedule of the mine. Never blocks.
+     */
+    boolean isOwner(String mineName);
+
+    CompletableFuture<Set<String>> getMineNames();
+
+    /**
+     * Gets the serialized definition of a mine, or null if the store has none.
+     */
+    CompletableFuture<String> getDefinition(String mineName);
+
+    /**
+     * Gets the last reset of a mine in epoch millis, or 0 if the store has none.
+     */
+    CompletableFuture<Long> getLastReset(String mineName);
+
+    /**
+     * Shares a mine definition. Definitions equal to the cached one are not sent again.
+     */
+    void publishDefinition(String mineName, String definition);
+
+    void publishReset(String mineName, long timestamp);
+
+    void removeDefinition(String mineName);
+
+    String getServerId();
+}
@@ -0,0 +1,382 @@
+package dev.silentbit.axolotMine.state;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.logging.Logger;
+
+/**
+ * Shares mine state through a Redis server.
+ *
+ * Keys (all under the configured namespace):
+ * {@code mines} is a set of mine names, {@code mine:<name>} a hash with the
+ * definition and last reset, and {@code owner:<name>} holds the id of the server
+ * owning the mine's schedule with a lease that the owner keeps renewing.
+ * Every change is followed by a message on the {@code invalidate} channel so
+ * other servers drop their cached copy and react.
+ */
+public class RedisMineStateStore implements MineStateStore {
+
+    // Takes the lease if it is free or already ours, so a dead owner is replaced once it expires
+    private static final String CLAIM_SCRIPT =
+            "local owner = redis.call('GET', KEYS[1]) " +
+            "if owner == ARGV[1] then redis.call('PEXPIRE', KEYS[1], ARGV[2]) return 1 end " +
+            "if not owner then redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2]) return 1 end " +
+            "return 0";
+
+    private static final String RELEASE_SCRIPT =
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end return 0";
+
+    private static final int TIMEOUT_MILLIS = 5000;
+    // A quiet subscription is pinged this often, a dead one is noticed after two of these
+    private static final int KEEPALIVE_MILLIS = 15000;
+
+    private final Logger logger;
+    private final String serverId;
+    private final String host;
+    private final int port;
+    private final String password;
+    private final int database;
+    private final String namespace;
+    private final long leaseMillis;
+
+    private final ScheduledExecutorService executor;
+    private final Map<String, CompletableFuture<String>> definitions;
+    private final Map<String, CompletableFuture<Long>> lastResets;
+    private final Set<String> owned;
+
+    private RespConnection connection; // Only used on the executor thread
+    private volatile RespConnection subscriber;
+    private volatile boolean running;
+    private Listener listener;
+
+    public RedisMineStateStore(Logger logger, String serverId, String host, int port, String password,
+                               int database, String namespace, long leaseMillis) {
+        this.logger = logger;
+        this.serverId = serverId;
+        this.host = host;
+        this.port = port;
+        this.password = password;
+        this.database = database;
+        this.namespace = namespace;
+        this.leaseMillis = leaseMillis;
+        this.definitions = new ConcurrentHashMap<>();
+        this.lastResets = new ConcurrentHashMap<>();
+        this.owned = ConcurrentHashMap.newKeySet();
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "AxolotMine-State");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void start(Listener listener) {
+        this.listener = listener;
+        this.running = true;
+
+        Thread thread = new Thread(this::subscribeLoop, "AxolotMine-State-Subscriber");
+        thread.setDaemon(true);
+        thread.start();
+
+        long period = Math.max(1000, leaseMillis / 3);
+        executor.scheduleAtFixedRate(this::renewOwnership, 0, period, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void shutdown() {
+        running = false;
+
+        try {
+            executor.submit(() -> {
+                for (String mineName : owned) {
+                    try {
+                        call("EVAL", RELEASE_SCRIPT, "1", key("owner:" + mineName), serverId);
+                    } catch (IOException ignored) {
+                        // The lease runs out on its own
+                    }
+                }
+                owned.clear();
+                closeQuietly(connection);
+                connection = null;
+            }).get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (Exception ignored) {
+        }
+
+        executor.shutdownNow();
+        closeQuietly(subscriber);
+    }
+
+    @Override
+    public CompletableFuture<Void> refreshOwnership() {
+        return supply(() -> {
+            renewOwnership();
+            return null;
+        });
+    }
+
+    @Override
+    public boolean isOwner(String mineName) {
+        return owned.contains(mineName);
+    }
+
+    @Override
+    public CompletableFuture<Set<String>> getMineNames() {
+        return supply(() -> {
+            Set<String> names = new HashSet<>();
+            Object reply = call("SMEMBERS", key("mines"));
+            if (reply instanceof List) {
+                for (Object name : (List<?>) reply) {
+                    names.add((String) name);
+                }
+            }
+            return names;
+        });
+    }
+
+    @Override
+    public CompletableFuture<String> getDefinition(String mineName) {
+        return cached(definitions, mineName, () -> (String) call("HGET", key("mine:" + mineName), "definition"));
+    }
+
+    @Override
+    public CompletableFuture<Long> getLastReset(String mineName) {
+        return cached(lastResets, mineName, () -> {
+            String value = (String) call("HGET", key("mine:" + mineName), "last-reset");
+            return value != null ? Long.parseLong(value) : 0L;
+        });
+    }
+
+    @Override
+    public void publishDefinition(String mineName, String definition) {
+        CompletableFuture<String> cached = definitions.get(mineName);
+        if (cached != null && cached.isDone() && !cached.isCompletedExceptionally()
+                && definition.equals(cached.join())) {
+            return;
+        }
+
+        definitions.put(mineName, CompletableFuture.completedFuture(definition));
+        run(() -> {
+            call("HSET", key("mine:" + mineName), "definition", definition);
+            call("SADD", key("mines"), mineName);
+            invalidate(mineName, Change.DEFINITION);
+        });
+    }
+
+    @Override
+    public void publishReset(String mineName, long timestamp) {
+        lastResets.put(mineName, CompletableFuture.completedFuture(timestamp));
+        run(() -> {
+            call("HSET", key("mine:" + mineName), "last-reset", Long.toString(timestamp));
+            invalidate(mineName, Change.RESET);
+        });
+    }
+
+    @Override
+    public void removeDefinition(String mineName) {
+        definitions.remove(mineName);
+        lastResets.remove(mineName);
+        owned.remove(mineName);
+        run(() -> {
+            call("DEL", key("mine:" + mineName));
+            call("SREM", key("mines"), mineName);
+            call("EVAL", RELEASE_SCRIPT, "1", key("owner:" + mineName), serverId);
+            invalidate(mineName, Change.REMOVED);
+        });
+    }
+
+    @Override
+    public String getServerId() {
+        return serverId;
+    }
+
+    private void renewOwnership() {
+        Set<String> localMines = new HashSet<>(listener.getLocalMines());
+        owned.retainAll(localMines);
+
+        for (String mineName : localMines) {
+            try {
+                Object claimed = call("EVAL", CLAIM_SCRIPT, "1", key("owner:" + mineName),
+                        serverId, Long.toString(leaseMillis));
+                if (Long.valueOf(1L).equals(claimed)) {
+                    owned.add(mineName);
+                } else {
+                    owned.remove(mineName);
+                }
+            } catch (IOException | RuntimeException e) {
+                // Without the server nobody can prove ownership, stop resetting until it is back
+                owned.clear();
+                logger.warning("Failed to renew mine ownership: " + e.getMessage());
+                return;
+            }
+        }
+    }
+
+    private void subscribeLoop() {
+        boolean reconnected = false;
+
+        while (running) {
+            try (RespConnection connection = open()) {
+                subscriber = connection;
+                connection.command("SUBSCRIBE", key("invalidate"));
+
+                // Messages sent while we were away are lost, so start over from the server
+                if (reconnected) {
+                    refreshAll();
+                }
+                reconnected = true;
+
+                boolean pinged = false;
+                while (running) {
+                    // A half-open connection never delivers anything, only a missing PONG tells
+                    if (!connection.await(KEEPALIVE_MILLIS)) {
+                        if (pinged) {
+                            throw new IOException("No reply to keepalive within " + KEEPALIVE_MILLIS + " ms");
+                        }
+                        connection.send("PING");
+                        pinged = true;
+                        continue;
+                    }
+
+                    Object message = connection.read();
+                    pinged = false;
+                    if (message instanceof List && ((List<?>) message).size() == 3
+                            && "message".equals(((List<?>) message).get(0))) {
+                        receive((String) ((List<?>) message).get(2));
+                    }
+                }
+            } catch (IOException e) {
+                if (!running) return;
+
+                logger.warning("Lost connection to the mine state server, retrying in 5 seconds: " + e.getMessage());
+                try {
+                    Thread.sleep(5000);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void receive(String payload) {
+        // <server id> TAB <change> TAB <mine name>
+        String[] parts = payload.split("\t", 3);
+        if (parts.length < 3 || parts[0].equals(serverId)) return;
+
+        Change change;
+        try {
+            change = Change.valueOf(parts[1]);
+        } catch (IllegalArgumentException e) {
+            return;
+        }
+
+        String mineName = parts[2];
+        definitions.remove(mineName);
+        if (change != Change.DEFINITION) {
+            lastResets.remove(mineName);
+        }
+        listener.onInvalidate(mineName, change);
+    }
+
+    private void refreshAll() {
+        definitions.clear();
+        lastResets.clear();
+        for (String mineName : listener.getLocalMines()) {
+            listener.onInvalidate(mineName, Change.DEFINITION);
+            listener.onInvalidate(mineName, Change.RESET);
+        }
+    }
+
+    private void invalidate(String mineName, Change change) throws IOException {
+        call("PUBLISH", key("invalidate"), serverId + "\t" + change.name() + "\t" + mineName);
+    }
+
+    private Object call(String... args) throws IOException {
+        if (connection == null) {
+            connection = open();
+        }
+
+        try {
+            return connection.command(args);
+        } catch (IOException e) {
+            closeQuietly(connection);
+            connection = null;
+            throw e;
+        }
+    }
+
+    private RespConnection open() throws IOException {
+        RespConnection connection = new RespConnection(host, port, TIMEOUT_MILLIS);
+        try {
+            connection.setReadTimeout(TIMEOUT_MILLIS);
+            if (!password.isEmpty()) {
+                connection.command("AUTH", password);
+            }
+            if (database != 0) {
+                connection.command("SELECT", Integer.toString(database));
+            }
+            return connection;
+        } catch (IOException e) {
+            closeQuietly(connection);
+            throw e;
+        }
+    }
+
+    private <T> CompletableFuture<T> cached(Map<String, CompletableFuture<T>> cache, String mineName, IoSupplier<T> loader) {
+        CompletableFuture<T> future = cache.computeIfAbsent(mineName, name -> supply(loader));
+        // Failed reads are not cached
+        future.whenComplete((value, throwable) -> {
+            if (throwable != null) {
+                cache.remove(mineName, future);
+            }
+        });
+        return future;
+    }
+
+    private <T> CompletableFuture<T> supply(IoSupplier<T> supplier) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(supplier.get());
+                } catch (IOException | RuntimeException e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    private void run(IoRunnable runnable) {
+        supply(() -> {
+            runnable.run();
+            return null;
+        }).exceptionally(throwable -> {
+            logger.warning("Failed to update mine state: " + throwable.getMessage());
+            return null;
+        });
+    }
+
+    private String key(String suffix) {
+        return namespace + ":" + suffix;
+    }
+
+    private static void closeQuietly(RespConnection connection) {
+        if (connection == null) return;
+
+        try {
+            connection.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private interface IoSupplier<T> {
+        T get() throws IOException;
+    }
+
+    private interface IoRunnable {
+        void run() throws IOException;
+    }
+}
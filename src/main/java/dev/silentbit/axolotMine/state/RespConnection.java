@@ -0,0 +1,125 @@
+package dev.silentbit.axolotMine.state;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A minimal blocking client for the Redis serialization protocol (RESP2).
+ * Works against redis-server and anything else that speaks the protocol.
+ * Not thread-safe on its own, callers serialize access.
+ */
+public class RespConnection implements Closeable {
+
+    private final Socket socket;
+    private final OutputStream out;
+    private final InputStream in;
+
+    public RespConnection(String host, int port, int timeoutMillis) throws IOException {
+        this.socket = new Socket();
+        socket.connect(new InetSocketAddress(host, port), timeoutMillis);
+        socket.setTcpNoDelay(true);
+        this.out = new BufferedOutputStream(socket.getOutputStream());
+        this.in = new BufferedInputStream(socket.getInputStream());
+    }
+
+    /**
+     * Sends a command and reads its reply: String for simple and bulk strings,
+     * Long for integers, List for arrays and null for nil replies.
+     */
+    public Object command(String... args) throws IOException {
+        send(args);
+        return read();
+    }
+
+    public void send(String... args) throws IOException {
+        out.write(('*' + Integer.toString(args.length) + "\r\n").getBytes(StandardCharsets.US_ASCII));
+        for (String arg : args) {
+            byte[] bytes = arg.getBytes(StandardCharsets.UTF_8);
+            out.write(('$' + Integer.toString(bytes.length) + "\r\n").getBytes(StandardCharsets.US_ASCII));
+            out.write(bytes);
+            out.write('\r');
+            out.write('\n');
+        }
+        out.flush();
+    }
+
+    public Object read() throws IOException {
+        int type = in.read();
+        switch (type) {
+            case '+':
+                return readLine();
+            case '-':
+                throw new IOException("Redis error: " + readLine());
+            case ':':
+                return Long.parseLong(readLine());
+            case '$': {
+                int length = Integer.parseInt(readLine());
+                if (length < 0) return null;
+
+                byte[] bytes = in.readNBytes(length);
+                if (bytes.length < length) throw new EOFException();
+                readLine(); // trailing CRLF
+                return new String(bytes, StandardCharsets.UTF_8);
+            }
+            case '*': {
+                int count = Integer.parseInt(readLine());
+                if (count < 0) return null;
+
+                List<Object> items = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    items.add(read());
+                }
+                return items;
+            }
+            case -1:
+                throw new EOFException("Connection closed");
+            default:
+                throw new IOException("Unexpected reply type: " + (char) type);
+        }
+    }
+
+    /**
+     * Waits up to {@code timeoutMillis} for a reply to start arriving without
+     * consuming it. Returns false if nothing arrived, unlike a timeout inside
+     * {@link #read()} the connection stays usable then.
+     */
+    public boolean await(int timeoutMillis) throws IOException {
+        int readTimeout = socket.getSoTimeout();
+        socket.setSoTimeout(timeoutMillis);
+        in.mark(1);
+        try {
+            if (in.read() == -1) throw new EOFException("Connection closed");
+            in.reset();
+            return true;
+        } catch (SocketTimeoutException e) {
+            return false;
+        } finally {
+            socket.setSoTimeout(readTimeout);
+        }
+    }
+
+    public void setReadTimeout(int timeoutMillis) throws IOException {
+        socket.setSoTimeout(timeoutMillis);
+    }
+
+    private String readLine() throws IOException {
+        StringBuilder line = new StringBuilder();
+        int c;
+        while ((c = in.read()) != '\r') {
+            if (c == -1) throw new EOFException("Connection closed");
+            line.append((char) c);
+        }
+        in.read(); // \n
+        return line.toString();
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+}
@@ -0,0 +1,275 @@
+package dev.silentbit.axolotMine.tasks;
+
+import dev.silentbit.axolotMine.AxolotMine;
+import dev.silentbit.axolotMine.managers.ChunkTicketManager;
+import dev.silentbit.axolotMine.managers.ThrottleManager;
+import dev.silentbit.axolotMine.models.Mine;
+import dev.silentbit.axolotMine.models.MineLayout;
+import dev.silentbit.axolotMine.models.ResetBackend;
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Resets several mines that share chunks as one job per chunk. Every mine is
+ * prepared on its own region first (players moved out, layout picked), then
+ * each chunk's region writes the sections of all mines in that chunk in one
+ * pass, bottom to top. With the WorldEdit backend a chunk is one edit session,
+ * so its sections are relit once instead of once per mine.
+ *
+ * Each mine's reset completes as soon as the last chunk it covers is written.
+ *
+ * With throttling on, every chunk job waits like a WorldEdit reset does until
+ * its region is within the target, the whole chunk is then written at once.
+ * The batch counts as a priority reset if any of its mines had players nearby.
+ */
+public class BatchResetTask {
+
+    private final AxolotMine plugin;
+    private final List<MineResetTask> tasks;
+    private final World world;
+    private final ResetBackend backend;
+    private final boolean throttled;
+    private final ThrottleManager throttle;
+    private long startedAt;
+    private boolean priority;
+
+    public BatchResetTask(AxolotMine plugin, List<MineResetTask> tasks) {
+        this.plugin = plugin;
+        this.tasks = tasks;
+        this.world = tasks.get(0).getMine().getPos1().getWorld();
+        this.backend = plugin.getConfigManager().getResetBackend();
+        this.throttled = tasks.stream().anyMatch(MineResetTask::isThrottled);
+        this.throttle = plugin.getThrottleManager();
+    }
+
+    public void start() {
+        startedAt = System.currentTimeMillis();
+
+        // Hold every chunk of the batch until the last one is written
+        List<CompletableFuture<ChunkTicketManager.Lease>> acquired = new ArrayList<>();
+        for (MineResetTask task : tasks) {
+            acquired.add(plugin.getChunkTicketManager().acquire(task.getMine()));
+        }
+
+        CompletableFuture.allOf(acquired.toArray(new CompletableFuture[0])).whenComplete((ignored, throwable) -> {
+            List<ChunkTicketManager.Lease> leases = new ArrayList<>();
+            for (CompletableFuture<ChunkTicketManager.Lease> lease : acquired) {
+                if (!lease.isCompletedExceptionally()) {
+                    leases.add(lease.join());
+                }
+            }
+
+            if (throwable != null) {
+                plugin.getLogger().severe("Failed to load chunks for a batch reset: " + throwable.getMessage());
+                leases.forEach(ChunkTicketManager.Lease::release);
+                tasks.forEach(task -> task.failBatch(throwable));
+                return;
+            }
+
+            prepare().whenComplete((layouts, error) -> write(layouts, leases));
+        });
+    }
+
+    private CompletableFuture<MineLayout[]> prepare() {
+        MineLayout[] layouts = new MineLayout[tasks.size()];
+        List<CompletableFuture<Void>> prepared = new ArrayList<>();
+
+        for (int i = 0; i < tasks.size(); i++) {
+            int index = i;
+            MineResetTask task = tasks.get(i);
+            Mine mine = task.getMine();
+            Location center = mine.getPos1().clone().add(mine.getPos2()).multiply(0.5);
+
+            CompletableFuture<Void> done = new CompletableFuture<>();
+            plugin.getSchedulerFacade().runRegion(center, () -> {
+                try {
+                    layouts[index] = task.prepareBatch();
+                    if (layouts[index] == null) {
+                        task.completeBatch(null, 0); // World is gone, nothing to write
+                    }
+                } catch (RuntimeException e) {
+                    // Only this mine drops out, the others are still written
+                    plugin.getLogger().severe("Failed to prepare the reset of mine " + mine.getName() + ": " + e.getMessage());
+                    task.failBatch(e);
+                }
+                done.complete(null);
+            });
+            prepared.add(done);
+        }
+
+        return CompletableFuture.allOf(prepared.toArray(new CompletableFuture[0])).thenApply(ignored -> layouts);
+    }
+
+    private void write(MineLayout[] layouts, List<ChunkTicketManager.Lease> leases) {
+        // Group the sections of every mine by the chunk they fall into
+        Map<Long, List<Slice>> byChunk = new LinkedHashMap<>();
+        AtomicIntegerArray chunksLeft = new AtomicIntegerArray(tasks.size());
+        for (int i = 0; i < layouts.length; i++) {
+            if (layouts[i] == null) continue;
+
+            long lastChunk = Long.MIN_VALUE;
+            for (MineLayout.Section section : layouts[i].getSections()) {
+                long chunk = key(section.getChunkX(), section.getChunkZ());
+                byChunk.computeIfAbsent(chunk, key -> new ArrayList<>()).add(new Slice(i, layouts[i], section));
+
+                // Sections are ordered by chunk, so each chunk's sections are adjacent
+                if (chunk != lastChunk) {
+                    chunksLeft.incrementAndGet(i);
+                    lastChunk = chunk;
+                }
+            }
+        }
+
+        if (byChunk.isEmpty()) {
+            leases.forEach(ChunkTicketManager.Lease::release);
+            return;
+        }
+
+        priority = throttled && tasks.stream().anyMatch(MineResetTask::isPriority);
+        if (priority) {
+            throttle.beginPriority(world.getName());
+        }
+
+        AtomicLongArray writeNanos = new AtomicLongArray(tasks.size());
+        AtomicInteger chunksRemaining = new AtomicInteger(byChunk.size());
+        for (Map.Entry<Long, List<Slice>> entry : byChunk.entrySet()) {
+            int chunkX = (int) (entry.getKey() >> 32);
+            int chunkZ = (int) (long) entry.getKey();
+            List<Slice> slices = entry.getValue();
+
+            runChunk(chunkX, chunkZ, () -> {
+                try {
+                    writeChunk(chunkX, chunkZ, slices, writeNanos);
+                } catch (RuntimeException e) {
+                    plugin.getLogger().severe("Failed to write chunk " + chunkX + "," + chunkZ + " of a batch reset: " + e.getMessage());
+                    for (Slice slice : slices) {
+                        tasks.get(slice.task).failBatch(e);
+                    }
+                } finally {
+                    completeChunk(slices, layouts, chunksLeft, writeNanos);
+                    if (chunksRemaining.decrementAndGet() == 0) {
+                        if (priority) {
+                            throttle.endPriority(world.getName());
+                        }
+                        leases.forEach(ChunkTicketManager.Lease::release);
+                    }
+                }
+            });
+        }
+    }
+
+    private void runChunk(int chunkX, int chunkZ, Runnable job) {
+        if (throttled) {
+            Location location = new Location(world, chunkX << 4, 0, chunkZ << 4);
+            plugin.getSchedulerFacade().runRegion(location, new ThrottledChunk(location, job));
+        } else {
+            plugin.getSchedulerFacade().runRegion(world, chunkX, chunkZ, job);
+        }
+    }
+
+    private void writeChunk(int chunkX, int chunkZ, List<Slice> slices, AtomicLongArray writeNanos) {
+        // Bottom to top, the parts of one section from all mines after each other
+        slices.sort(Comparator.comparingInt(slice -> slice.section.getSectionY()));
+
+        if (backend == ResetBackend.WORLDEDIT) {
+            long start = System.nanoTime();
+            boolean suppressed = plugin.getWorldEditHandler().applyBlocks(world, consumer -> {
+                for (Slice slice : slices) {
+                    slice.layout.forEachBlock(slice.section, consumer);
+                }
+            }, plugin.getConfigManager().isChunkResync());
+
+            if (suppressed) {
+                world.refreshChunk(chunkX, chunkZ);
+                plugin.getResetMetrics().recordChunkResyncs(1);
+            }
+
+            // One session for all mines, split its time by the blocks each one wrote
+            long elapsed = System.nanoTime() - start;
+            long volume = 0;
+            for (Slice slice : slices) {
+                volume += slice.section.getVolume();
+            }
+            for (Slice slice : slices) {
+                writeNanos.addAndGet(slice.task, elapsed * slice.section.getVolume() / Math.max(1, volume));
+            }
+            return;
+        }
+
+        for (Slice slice : slices) {
+            long start = System.nanoTime();
+            slice.layout.forEachBlock(slice.section, (x, y, z, data) -> world.getBlockAt(x, y, z).setBlockData(data, false));
+            writeNanos.addAndGet(slice.task, System.nanoTime() - start);
+        }
+    }
+
+    private void completeChunk(List<Slice> slices, MineLayout[] layouts, AtomicIntegerArray chunksLeft,
+                               AtomicLongArray writeNanos) {
+        Set<Integer> touched = new HashSet<>();
+        for (Slice slice : slices) {
+            touched.add(slice.task);
+        }
+
+        for (int task : touched) {
+            if (chunksLeft.decrementAndGet(task) == 0) {
+                // No-op for a mine whose reset already failed
+                tasks.get(task).completeBatch(layouts[task], writeNanos.get(task));
+            }
+        }
+    }
+
+    /**
+     * Runs a chunk job on its region once the region has room for it, checking
+     * again every tick. The interval between checks is the region's tick time
+     * where the server has none for it.
+     */
+    private final class ThrottledChunk implements Runnable {
+
+        private final Location location;
+        private final Runnable job;
+        private long lastRun;
+
+        private ThrottledChunk(Location location, Runnable job) {
+            this.location = location;
+            this.job = job;
+        }
+
+        @Override
+        public void run() {
+            long now = System.nanoTime();
+            double interval = lastRun == 0 ? ThrottleManager.TICK_MILLIS : (now - lastRun) / 1_000_000.0;
+            lastRun = now;
+
+            long maxDelayMillis = plugin.getConfigManager().getThrottleMaxDelaySeconds() * 1000L;
+            boolean overdue = System.currentTimeMillis() - startedAt >= maxDelayMillis;
+            if (throttle.canStart(throttle.getMspt(interval), priority, overdue, world.getName())) {
+                job.run();
+            } else {
+                plugin.getSchedulerFacade().runRegionDelayed(location, this, 1L);
+            }
+        }
+    }
+
+    private static long key(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    private static final class Slice {
+
+        private final int task;
+        private final MineLayout layout;
+        private final MineLayout.Section section;
+
+        private Slice(int task, MineLayout layout, MineLayout.Section section) {
+            this.task = task;
+            this.layout = layout;
+            this.section = section;
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package dev.silentbit.axolotMine.tasks;
+
+import dev.silentbit.axolotMine.AxolotMine;
+import dev.silentbit.axolotMine.managers.ChunkTicketManager;
+import dev.silentbit.axolotMine.models.Mine;
+import dev.silentbit.axolotMine.models.MineLayout;
+import dev.silentbit.axolotMine.models.ResetBackend;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.command.CommandSender;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Measures the reset backends on a scratch cuboid: resets it a number of times
+ * through each backend, one reset per tick, and reports the throughput, the
+ * 95th percentile of the time each reset added to its tick and the allocation
+ * rate. The original blocks are put back afterwards.
+ *
+ * Backends take turns so that a warming JIT or a busy moment of the server
+ * does not favour whichever backend happens to run first.
+ */
+public class BenchmarkTask {
+
+    private final AxolotMine plugin;
+    private final CommandSender sender;
+    private final List<ResetBackend> backends;
+    private final Mine scratch;
+    private final Location center;
+    private final int size;
+    private final int runs;
+    private final int warmup;
+    private final CompletableFuture<Void> completion;
+    private final Map<ResetBackend, long[]> durations;
+    private final Map<ResetBackend, Long> allocated;
+
+    private ChunkTicketManager.Lease lease;
+    private BlockData[] original;
+    private MineLayout layout;
+
+    public BenchmarkTask(AxolotMine plugin, CommandSender sender, Location origin, int size, List<ResetBackend> backends) {
+        this.plugin = plugin;
+        this.sender = sender;
+        this.backends = backends;
+        this.size = size;
+        this.runs = plugin.getConfigManager().getBenchRuns();
+        this.warmup = plugin.getConfigManager().getBenchWarmup();
+        this.completion = new CompletableFuture<>();
+        this.durations = new EnumMap<>(ResetBackend.class);
+        this.allocated = new EnumMap<>(ResetBackend.class);
+
+        Location pos2 = origin.clone().add(size - 1, size - 1, size - 1);
+        Map<Material, Double> composition = new HashMap<>();
+        composition.put(Material.STONE, 80.0);
+        composition.put(Material.COAL_ORE, 10.0);
+        composition.put(Material.IRON_ORE, 7.0);
+        composition.put(Material.DIAMOND_ORE, 3.0);
+
+        this.scratch = new Mine("bench", origin.getWorld().getName(), origin.clone(), pos2, 0, composition);
+        this.center = origin.clone().add(pos2).multiply(0.5);
+    }
+
+    /**
+     * Completes once the original blocks are back, whether the benchmark worked or not.
+     */
+    public CompletableFuture<Void> start() {
+        plugin.getChunkTicketManager().acquire(scratch).whenComplete((acquired, throwable) -> {
+            if (throwable != null) {
+                fail(throwable);
+                return;
+            }
+
+            lease = acquired;
+            plugin.getSchedulerFacade().runRegion(center, () -> prepare());
+        });
+        return completion;
+    }
+
+    private void prepare() {
+        try {
+            World world = center.getWorld();
+            BlockData[] blocks = new BlockData[scratch.getBlockCount()];
+            int[] index = {0};
+            forEachPosition((x, y, z) -> blocks[index[0]++] = world.getBlockAt(x, y, z).getBlockData());
+            original = blocks;
+
+            // Generated once up front, only the writes are measured
+            layout = plugin.getLayoutManager().generate(scratch);
+            for (ResetBackend backend : backends) {
+                durations.put(backend, new long[runs]);
+                allocated.put(backend, 0L);
+            }
+        } catch (RuntimeException e) {
+            fail(e);
+            return;
+        }
+
+        step(0);
+    }
+
+    /**
+     * Runs one reset, then schedules the next one for a later tick.
+     */
+    private void step(int step) {
+        int total = (warmup + runs) * backends.size();
+        if (step >= total) {
+            finish();
+            return;
+        }
+
+        try {
+            ResetBackend backend = backends.get(step % backends.size());
+            int run = step / backends.size() - warmup;
+            measure(backend, run);
+        } catch (RuntimeException e) {
+            fail(e);
+            return;
+        }
+
+        plugin.getSchedulerFacade().runRegionDelayed(center, () -> step(step + 1), 2L);
+    }
+
+    private void measure(ResetBackend backend, int run) {
+        World world = center.getWorld();
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+
+        if (backend == ResetBackend.WORLDEDIT) {
+            plugin.getWorldEditHandler().applyLayout(world, layout, false);
+        } else {
+            layout.forEachBlock((x, y, z, data) -> world.getBlockAt(x, y, z).setBlockData(data, false));
+        }
+
+        long elapsed = System.nanoTime() - start;
+        long allocation = allocatedBytes() - allocatedBefore;
+
+        if (run < 0) return; // Warmup
+        durations.get(backend)[run] = elapsed;
+        if (allocatedBefore >= 0) {
+            allocated.merge(backend, allocation, Long::sum);
+        }
+    }
+
+    private void finish() {
+        restore();
+
+        int blocks = layout.getBlockCount();
+        plugin.getMessageUtil().sendMessage(sender, "bench-header", Map.of(
+                "size", String.valueOf(size),
+                "blocks", String.valueOf(blocks),
+                "runs", String.valueOf(runs)));
+
+        for (ResetBackend backend : backends) {
+            long[] times = durations.get(backend).clone();
+            Arrays.sort(times);
+
+            long totalNanos = 0;
+            for (long time : times) {
+                totalNanos += time;
+            }
+            double seconds = Math.max(1, totalNanos) / 1_000_000_000.0;
+            long p95 = times[Math.max(0, (int) Math.ceil(times.length * 0.95) - 1)];
+            long bytes = allocated.get(backend);
+
+            plugin.getMessageUtil().sendMessage(sender, "bench-entry", Map.of(
+                    "backend", backend.name().toLowerCase(),
+                    "rate", String.format("%,d", (long) (blocks * (double) runs / seconds)),
+                    "p95", String.format("%.2f", p95 / 1_000_000.0),
+                    "alloc", allocatedBytes() < 0 ? "n/a" : String.format("%.1f", bytes / seconds / (1024 * 1024))));
+        }
+
+        completion.complete(null);
+    }
+
+    private void fail(Throwable throwable) {
+        plugin.getLogger().warning("Benchmark failed: " + throwable.getMessage());
+        plugin.getMessageUtil().sendMessage(sender, "bench-failed", Map.of("error", String.valueOf(throwable.getMessage())));
+
+        if (original != null) {
+            plugin.getSchedulerFacade().runRegion(center, () -> {
+                restore();
+                completion.complete(null);
+            });
+        } else {
+            if (lease != null) {
+                lease.release();
+            }
+            completion.complete(null);
+        }
+    }
+
+    private void restore() {
+        World world = center.getWorld();
+        int[] index = {0};
+        forEachPosition((x, y, z) -> world.getBlockAt(x, y, z).setBlockData(original[index[0]++], false));
+        lease.release();
+    }
+
+    // Same order as the original blocks were read in
+    private void forEachPosition(PositionConsumer consumer) {
+        Location pos1 = scratch.getPos1();
+        Location pos2 = scratch.getPos2();
+        for (int y = pos1.getBlockY(); y <= pos2.getBlockY(); y++) {
+            for (int z = pos1.getBlockZ(); z <= pos2.getBlockZ(); z++) {
+                for (int x = pos1.getBlockX(); x <= pos2.getBlockX(); x++) {
+                    consumer.accept(x, y, z);
+                }
+            }
+        }
+    }
+
+    /**
+     * Bytes allocated by the current thread so far, or -1 if the JVM does not track it.
+     */
+    private static long allocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean sunThreads = (com.sun.management.ThreadMXBean) threads;
+            if (sunThreads.isThreadAllocatedMemoryEnabled()) {
+                return sunThreads.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+
+    private interface PositionConsumer {
+        void accept(int x, int y, int z);
+    }
+}
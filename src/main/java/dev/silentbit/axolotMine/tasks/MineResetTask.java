@@ -1,35 +1,171 @@
 package dev.silentbit.axolotMine.tasks;
 
 import dev.silentbit.axolotMine.AxolotMine;
+import dev.silentbit.axolotMine.jfr.MineReset;
+import dev.silentbit.axolotMine.managers.ThrottleManager;
 import dev.silentbit.axolotMine.models.Mine;
+import dev.silentbit.axolotMine.models.MineLayout;
+import dev.silentbit.axolotMine.models.ResetBackend;
+import dev.silentbit.axolotMine.models.ResetMode;
+import dev.silentbit.axolotMine.models.ResetResult;
+import dev.silentbit.axolotMine.utils.SchedulerFacade;
 import org.bukkit.Location;
-import org.bukkit.Material;
 import org.bukkit.Sound;
 import org.bukkit.World;
-import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 public class MineResetTask implements Runnable {
 
     private final AxolotMine plugin;
     private final Mine mine;
+    private final ResetBackend backend;
+    private final boolean throttled;
+    private final CompletableFuture<ResetResult> completion;
+    private final MineReset event;
+    private final long startedAt;
+    private boolean priority; // Players were nearby when a batch prepared this reset
 
     public MineResetTask(AxolotMine plugin, Mine mine) {
+        this(plugin, mine, false);
+    }
+
+    /**
+     * @param throttled whether the blocks may be spread over several ticks of
+     *                  the mine's region, which needs the chunks to stay loaded
+     */
+    public MineResetTask(AxolotMine plugin, Mine mine, boolean throttled) {
+        this(plugin, mine, throttled, System.currentTimeMillis());
+    }
+
+    /**
+     * @param startedAt when the reset was requested, chunk loading before the
+     *                  task runs counts towards its duration
+     */
+    public MineResetTask(AxolotMine plugin, Mine mine, boolean throttled, long startedAt) {
         this.plugin = plugin;
         this.mine = mine;
+        this.backend = plugin.getConfigManager().getResetBackend();
+        this.throttled = throttled && plugin.getThrottleManager().isEnabled();
+        this.completion = new CompletableFuture<>();
+        this.event = new MineReset();
+        this.startedAt = startedAt;
+    }
+
+    /**
+     * Completes once the last block of the reset has been written.
+     */
+    public CompletableFuture<ResetResult> getCompletion() {
+        return completion;
+    }
+
+    public Mine getMine() {
+        return mine;
+    }
+
+    /**
+     * Moves players out and picks the layout without writing it, for a
+     * {@link BatchResetTask} that writes several mines together. Runs on the
+     * region of the mine's center, returns null if the world is gone.
+     */
+    MineLayout prepareBatch() {
+        event.begin();
+
+        // Checked before the teleport, which moves everybody out of the mine
+        priority = throttled && hasPlayersNearby();
+        teleportPlayersOutOfMine();
+
+        if (mine.getPos1().getWorld() == null) return null;
+        return selectLayout();
+    }
+
+    boolean isThrottled() {
+        return throttled;
+    }
+
+    boolean isPriority() {
+        return priority;
+    }
+
+    void completeBatch(MineLayout layout, long writeNanos) {
+        if (completion.isDone()) return; // Failed in another chunk
+        finish(layout, writeNanos);
+    }
+
+    void failBatch(Throwable throwable) {
+        completion.completeExceptionally(throwable);
     }
 
     @Override
     public void run() {
-        // Teleport players out IMMEDIATELY (no warning)
-        teleportPlayersOutOfMine();
+        try {
+            event.begin();
+
+            // Checked before the teleport, which moves everybody out of the mine
+            boolean priority = throttled && hasPlayersNearby();
 
-        // Reset the mine blocks
-        resetMineBlocks();
+            // Teleport players out IMMEDIATELY (no warning)
+            teleportPlayersOutOfMine();
 
-        plugin.getLogger().info("Mine '" + mine.getName() + "' has been reset!");
+            // Reset the mine blocks
+            MineLayout layout = resetMineBlocks(priority);
+            if (layout == null) {
+                finish(null, 0);
+            }
+        } catch (RuntimeException e) {
+            completion.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private void finish(MineLayout layout, long writeNanos) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.mine = mine.getName();
+            event.blocks = mine.getBlockCount();
+            event.backend = backend.name().toLowerCase();
+            event.commit();
+        }
+
+        // Prepare the next layout while the mine is in use
+        mine.incrementResetCount();
+        plugin.getLayoutManager().prepare(mine);
+
+        long blocks = 0;
+        if (layout != null) {
+            blocks = layout.getBlockCount();
+            mine.setPlacedBlocks(layout.getPlacedCounts());
+            plugin.getResetMetrics().record(backend, layout.getBlockCount(), writeNanos);
+            plugin.getLogger().info("Mine '" + mine.getName() + "' has been reset! (" +
+                    (mine.getResetMode() == ResetMode.RESTORE ? "snapshot" : "seed: " + layout.getSeed()) + ")");
+        }
+
+        completion.complete(ResetResult.completed(mine, startedAt, blocks, writeNanos));
+    }
+
+    private boolean hasPlayersNearby() {
+        Location pos1 = mine.getPos1();
+        Location pos2 = mine.getPos2();
+        World world = pos1.getWorld();
+        if (world == null) return false;
+
+        int radius = plugin.getConfigManager().getWarningRadius();
+        int minX = Math.min(pos1.getBlockX(), pos2.getBlockX()) - radius;
+        int maxX = Math.max(pos1.getBlockX(), pos2.getBlockX()) + radius;
+        int minY = Math.min(pos1.getBlockY(), pos2.getBlockY()) - radius;
+        int maxY = Math.max(pos1.getBlockY(), pos2.getBlockY()) + radius;
+        int minZ = Math.min(pos1.getBlockZ(), pos2.getBlockZ()) - radius;
+        int maxZ = Math.max(pos1.getBlockZ(), pos2.getBlockZ()) + radius;
+
+        for (Player player : world.getPlayers()) {
+            if (isLocationInRegion(player.getLocation(), minX, maxX, minY, maxY, minZ, maxZ)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     private void teleportPlayersOutOfMine() {
@@ -93,46 +229,189 @@ public class MineResetTask implements Runnable {
         player.playSound(player.getLocation(), Sound.ENTITY_ENDERMAN_TELEPORT, 1.0f, 1.0f);
     }
 
-    private void resetMineBlocks() {
-        Location pos1 = mine.getPos1();
-        Location pos2 = mine.getPos2();
+    private MineLayout resetMineBlocks(boolean priority) {
+        World world = mine.getPos1().getWorld();
+        if (world == null) return null;
 
-        int minX = Math.min(pos1.getBlockX(), pos2.getBlockX());
-        int maxX = Math.max(pos1.getBlockX(), pos2.getBlockX());
-        int minY = Math.min(pos1.getBlockY(), pos2.getBlockY());
-        int maxY = Math.max(pos1.getBlockY(), pos2.getBlockY());
-        int minZ = Math.min(pos1.getBlockZ(), pos2.getBlockZ());
-        int maxZ = Math.max(pos1.getBlockZ(), pos2.getBlockZ());
+        MineLayout layout = selectLayout();
+        if (throttled) {
+            new ThrottledWriter(world, layout, priority).start();
+            return layout;
+        }
 
-        Map<Material, Double> composition = mine.getComposition();
-        List<Material> materials = generateMaterialList(composition);
-        Random random = new Random();
+        long start = System.nanoTime();
+        writeLayout(world, layout);
+        finish(layout, System.nanoTime() - start);
 
-        for (int x = minX; x <= maxX; x++) {
-            for (int y = minY; y <= maxY; y++) {
-                for (int z = minZ; z <= maxZ; z++) {
-                    Block block = pos1.getWorld().getBlockAt(x, y, z);
-                    Material material = materials.get(random.nextInt(materials.size()));
-                    block.setType(material, false);
-                }
+        return layout;
+    }
+
+    private MineLayout selectLayout() {
+        MineLayout layout = null;
+        if (mine.getResetMode() == ResetMode.RESTORE) {
+            layout = plugin.getSnapshotManager().load(mine);
+            if (layout == null) {
+                plugin.getLogger().warning("Mine '" + mine.getName() + "' has no usable snapshot mapped yet, using its composition instead");
             }
+        } else {
+            // Use the layout generated off-thread after the previous reset,
+            // only sample inline when it is missing or no longer matches the mine
+            layout = plugin.getLayoutManager().take(mine);
+        }
+
+        if (layout == null) {
+            layout = plugin.getLayoutManager().generate(mine);
+        }
+        return layout;
+    }
+
+    private void writeLayout(World world, MineLayout layout) {
+        if (backend == ResetBackend.WORLDEDIT) {
+            applyWorldEdit(world, layout);
+            return;
         }
+
+        layout.forEachBlock((x, y, z, data) -> world.getBlockAt(x, y, z).setBlockData(data, false));
+    }
+
+    private void applyWorldEdit(World world, MineLayout layout) {
+        boolean chunkResync = plugin.getConfigManager().isChunkResync();
+        if (plugin.getWorldEditHandler().applyLayout(world, layout, chunkResync)) {
+            resyncChunks(world, layout);
+        }
+    }
+
+    /**
+     * Sends every chunk touched by the layout once to the players tracking it,
+     * instead of one block change per written block.
+     */
+    private void resyncChunks(World world, MineLayout layout) {
+        int chunks = 0;
+        long lastChunk = Long.MIN_VALUE;
+
+        // Sections are ordered by chunk, so each chunk's sections are adjacent
+        for (MineLayout.Section section : layout.getSections()) {
+            long chunk = ((long) section.getChunkX() << 32) | (section.getChunkZ() & 0xFFFFFFFFL);
+            if (chunk == lastChunk) continue;
+
+            lastChunk = chunk;
+            world.refreshChunk(section.getChunkX(), section.getChunkZ());
+            chunks++;
+        }
+
+        plugin.getResetMetrics().recordChunkResyncs(chunks);
     }
 
-    private List<Material> generateMaterialList(Map<Material, Double> composition) {
-        List<Material> materials = new ArrayList<>();
+    /**
+     * Writes a layout over several ticks of the mine's region, a budget of whole
+     * sections per tick that shrinks while the region runs above its target.
+     * The WorldEdit backend applies everything at once, so it only postpones the
+     * start until the region has room for it.
+     */
+    private final class ThrottledWriter implements Consumer<SchedulerFacade.Task> {
+
+        private static final double SMOOTHING = 0.3;
+
+        private final World world;
+        private final MineLayout layout;
+        private final boolean priority;
+        private final ThrottleManager throttle;
+        private final long maxDelayMillis;
+        private final long maxSliceNanos;
 
-        for (Map.Entry<Material, Double> entry : composition.entrySet()) {
-            int count = (int) Math.round(entry.getValue());
-            for (int i = 0; i < count; i++) {
-                materials.add(entry.getKey());
+        private long startedAt;
+        private long lastRun;
+        private double interval = ThrottleManager.TICK_MILLIS;
+        private int nextSection;
+        private long writeNanos;
+
+        private ThrottledWriter(World world, MineLayout layout, boolean priority) {
+            this.world = world;
+            this.layout = layout;
+            this.priority = priority;
+            this.throttle = plugin.getThrottleManager();
+            this.maxDelayMillis = plugin.getConfigManager().getThrottleMaxDelaySeconds() * 1000L;
+            this.maxSliceNanos = plugin.getConfigManager().getThrottleMaxSliceMillis() * 1_000_000L;
+        }
+
+        private void start() {
+            startedAt = System.currentTimeMillis();
+            if (priority) {
+                throttle.beginPriority(world.getName());
             }
+
+            // The first slice runs right away, already on the mine's region
+            SchedulerFacade.Task task = plugin.getSchedulerFacade().runRegionAtFixedRate(
+                    mine.getPos1().clone().add(mine.getPos2()).multiply(0.5), this, 1L, 1L);
+            accept(task);
         }
 
-        if (materials.isEmpty()) {
-            materials.add(Material.STONE);
+        @Override
+        public void accept(SchedulerFacade.Task task) {
+            if (completion.isDone()) {
+                task.cancel();
+                return;
+            }
+
+            try {
+                if (!runSlice()) {
+                    done(task);
+                }
+            } catch (RuntimeException e) {
+                task.cancel();
+                if (priority) {
+                    throttle.endPriority(world.getName());
+                }
+                completion.completeExceptionally(e);
+                throw e;
+            }
         }
 
-        return materials;
+        /**
+         * Writes this tick's share, returns whether there is more to write.
+         */
+        private boolean runSlice() {
+            long now = System.nanoTime();
+            if (lastRun != 0) {
+                interval += SMOOTHING * ((now - lastRun) / 1_000_000.0 - interval);
+            }
+            lastRun = now;
+
+            double mspt = throttle.getMspt(interval);
+            boolean overdue = System.currentTimeMillis() - startedAt >= maxDelayMillis;
+            String worldName = world.getName();
+
+            if (backend == ResetBackend.WORLDEDIT) {
+                if (!throttle.canStart(mspt, priority, overdue, worldName)) return true;
+
+                applyWorldEdit(world, layout);
+                writeNanos += System.nanoTime() - now;
+                return false;
+            }
+
+            int budget = throttle.getBudget(mspt, priority, overdue, worldName);
+            if (budget == 0) return true;
+
+            List<MineLayout.Section> sections = layout.getSections();
+            int written = 0;
+            while (nextSection < sections.size() && written < budget) {
+                MineLayout.Section section = sections.get(nextSection++);
+                layout.forEachBlock(section, (x, y, z, data) -> world.getBlockAt(x, y, z).setBlockData(data, false));
+                written += section.getVolume();
+
+                if (System.nanoTime() - now >= maxSliceNanos) break;
+            }
+
+            writeNanos += System.nanoTime() - now;
+            return nextSection < sections.size();
+        }
+
+        private void done(SchedulerFacade.Task task) {
+            task.cancel();
+            if (priority) {
+                throttle.endPriority(world.getName());
+            }
+            finish(layout, writeNanos);
+        }
     }
 }
@@ -5,20 +5,27 @@ import org.bukkit.plugin.Plugin;
 
 public class FoliaUtil {
 
+    // The server type cannot change at runtime, look it up once
+    private static final boolean FOLIA = detect();
+
     public static boolean isFolia() {
-        try {
-            Class.forName("io.papermc.paper.threadedregions.RegionizedServer");
-            return true;
-        } catch (ClassNotFoundException e) {
-            return false;
-        }
+        return FOLIA;
     }
 
     public static void runTask(Plugin plugin, Location location, Runnable task) {
-        if (isFolia()) {
+        if (FOLIA) {
             plugin.getServer().getRegionScheduler().run(plugin, location, scheduledTask -> task.run());
         } else {
             plugin.getServer().getScheduler().runTask(plugin, task);
         }
     }
+
+    private static boolean detect() {
+        try {
+            Class.forName("io.papermc.paper.threadedregions.RegionizedServer");
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
 }
@@ -0,0 +1,43 @@
+package dev.silentbit.axolotMine.utils;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates the executor all blocking file I/O of the plugin runs on.
+ *
+ * On Java 21 and newer every task gets its own virtual thread. Older runtimes
+ * get a small pool of daemon platform threads. The factory is looked up
+ * reflectively so the same jar runs on both.
+ */
+public final class IoExecutor {
+
+    private IoExecutor() {
+    }
+
+    public static ExecutorService create(int platformThreads) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            // Java 17, no virtual threads
+        }
+
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(platformThreads, platformThreads, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "AxolotMine-IO-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    public static boolean isVirtual(ExecutorService executor) {
+        return !(executor instanceof ThreadPoolExecutor);
+    }
+}
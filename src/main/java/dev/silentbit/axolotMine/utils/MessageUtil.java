@@ -2,6 +2,7 @@
 package dev.silentbit.axolotMine.utils;
 
 import dev.silentbit.axolotMine.AxolotMine;
+import dev.silentbit.axolotMine.jfr.MessageRender;
 import net.kyori.adventure.text.Component;
 import org.bukkit.command.CommandSender;
 
@@ -24,6 +25,11 @@ public class MessageUtil {
         defaultMessages.put("no-permission", "<red>You don't have permission!</red>");
         defaultMessages.put("player-only", "<red>This command is for players only!</red>");
         defaultMessages.put("mine-not-found", "<red>Mine '<mine>' not found!</red>");
+        defaultMessages.put("mine-world-loading", "<yellow>Loading world '<world>' for mine '<mine>', try again in a moment.</yellow>");
+        defaultMessages.put("profile-not-found", "<red>Composition profile '<profile>' not found!</red>");
+        defaultMessages.put("composition-uses-profile", "<red>Mine '<mine>' uses profile '<profile>'. Edit it in config.yml or run /am profile <mine> none first.</red>");
+        defaultMessages.put("mine-reset-cancelled", "<red>The reset of mine '<mine>' was cancelled by another plugin.</red>");
+        defaultMessages.put("mine-world-unloaded", "<red>Mine '<mine>' is waiting for world '<world>' to be loaded.</red>");
         defaultMessages.put("mine-already-exists", "<red>Mine '<mine>' already exists!</red>");
         defaultMessages.put("no-selection", "<red>Make a WorldEdit selection first!</red>");
         defaultMessages.put("unknown-command", "<red>Unknown command! Use /am help</red>");
@@ -32,26 +38,44 @@ public class MessageUtil {
         defaultMessages.put("invalid-percentage", "<red>Percentage must be 0-100!</red>");
         defaultMessages.put("invalid-material", "<red>Invalid material type!</red>");
         defaultMessages.put("interval-too-small", "<red>Interval must be at least 30 seconds!</red>");
+        defaultMessages.put("invalid-seed-policy", "<red>Seed policy must be fixed, rotating or random!</red>");
 
         // Usage messages
         defaultMessages.put("usage-create", "<yellow>Usage: /am create <name></yellow>");
         defaultMessages.put("usage-reset", "<yellow>Usage: /am reset <name></yellow>");
         defaultMessages.put("usage-delete", "<yellow>Usage: /am delete <name></yellow>");
-        defaultMessages.put("usage-setinterval", "<yellow>Usage: /am setinterval <name> <seconds></yellow>");
+        defaultMessages.put("usage-setinterval", "<yellow>Usage: /am setinterval <name> <seconds|adaptive [min] [max]|schedule <cron|@name>></yellow>");
+        defaultMessages.put("invalid-schedule", "<red>Invalid schedule: <reason></red>");
+        defaultMessages.put("invalid-interval-bounds", "<red>The max interval must not be below the min interval!</red>");
         defaultMessages.put("usage-settp", "<yellow>Usage: /am settp <name></yellow>");
         defaultMessages.put("usage-teleport", "<yellow>Usage: /am tp <name></yellow>");
-        defaultMessages.put("usage-composition", "<yellow>Usage: /am comp <name> [add|remove] [material] [%]</yellow>");
+        defaultMessages.put("usage-composition", "<yellow>Usage: /am comp <name> [add|remove|import] [material] [%]</yellow>");
         defaultMessages.put("usage-composition-add", "<yellow>Usage: /am comp <name> add <MATERIAL> <%></yellow>");
         defaultMessages.put("usage-composition-remove", "<yellow>Usage: /am comp <name> remove <MATERIAL></yellow>");
+        defaultMessages.put("usage-snapshot", "<yellow>Usage: /am snapshot <name> [clear]</yellow>");
+        defaultMessages.put("usage-survey", "<yellow>Usage: /am survey <name></yellow>");
+        defaultMessages.put("usage-bench", "<yellow>Usage: /am bench <size> [bukkit|worldedit]</yellow>");
+        defaultMessages.put("usage-profile", "<yellow>Usage: /am profile <list|<name> <profile|none>></yellow>");
+        defaultMessages.put("usage-seed", "<yellow>Usage: /am seed <name> [fixed|rotating|random] [seed]</yellow>");
 
         // Success messages
         defaultMessages.put("config-reloaded", "<green>✓ Configuration reloaded!</green>");
+        defaultMessages.put("reload-failed", "<red>Reload failed: <error></red>");
         defaultMessages.put("all-mines-reset", "<green>✓ All <count> mines reset!</green>");
         defaultMessages.put("teleported-to-mine", "<aqua>Teleported to '<mine>'!</aqua>");
         defaultMessages.put("interval-set", "<green>✓ Interval set to <interval>s for '<mine>'!</green>");
+        defaultMessages.put("interval-adaptive-set", "<green>✓ '<mine>' now uses an adaptive interval of <min>s - <max>s (currently <interval>s)!</green>");
+        defaultMessages.put("interval-schedule-set", "<green>✓ '<mine>' now resets on the schedule <schedule>, next in <time>!</green>");
+        defaultMessages.put("profile-set", "<green>✓ '<mine>' now uses composition profile '<profile>'!</green>");
+        defaultMessages.put("profile-cleared", "<green>✓ '<mine>' now has its own composition!</green>");
         defaultMessages.put("composition-added", "<green>✓ Added <material> (<percentage>) to '<mine>'!</green>");
         defaultMessages.put("composition-removed", "<red>✗ Removed <material> from '<mine>'!</red>");
         defaultMessages.put("material-not-in-composition", "<red>Material not in composition!</red>");
+        defaultMessages.put("snapshot-saved", "<green>✓ Snapshot of '<mine>' saved (<blocks> blocks, <count> block states)! It now resets to this layout.</green>");
+        defaultMessages.put("snapshot-failed", "<red>Failed to snapshot '<mine>'! Check the console.</red>");
+        defaultMessages.put("snapshot-cleared", "<red>✗ Snapshot of '<mine>' removed, it resets from its composition again!</red>");
+        defaultMessages.put("seed-set", "<green>✓ Seed policy for '<mine>' set to <policy> (seed <seed>)!</green>");
+        defaultMessages.put("seed-info", "<aqua>'<mine>' uses <policy> seeds</aqua> <dark_gray>│</dark_gray> <gray>Seed: <white><seed></white> <dark_gray>│</dark_gray> Resets: <white><count></white></gray>");
 
         // List & Info headers
         defaultMessages.put("mines-list-header", "<gradient:#00ffaa:#00aaff>╔═════════════ Mines ═════════════╗</gradient>");
@@ -62,19 +86,46 @@ public class MessageUtil {
         defaultMessages.put("mine-info-size", "<gradient:#00ffaa:#00aaff>║</gradient> Size: <white><size></white>");
         defaultMessages.put("mine-info-blocks", "<gradient:#00ffaa:#00aaff>║</gradient> Blocks: <yellow><blocks></yellow>");
         defaultMessages.put("mine-info-interval", "<gradient:#00ffaa:#00aaff>║</gradient> Interval: <gold><interval>s</gold>");
+        defaultMessages.put("mine-info-adaptive", "<gradient:#00ffaa:#00aaff>║</gradient> Interval: <gold><interval>s</gold> <gray>(adaptive <min>s - <max>s, <rate> breaks/s)</gray>");
+        defaultMessages.put("mine-info-schedule", "<gradient:#00ffaa:#00aaff>║</gradient> Schedule: <gold><schedule></gold>");
+        defaultMessages.put("mine-info-resetmode", "<gradient:#00ffaa:#00aaff>║</gradient> Reset Mode: <white><mode></white>");
+        defaultMessages.put("mine-info-pending", "<gradient:#00ffaa:#00aaff>║</gradient> <yellow>Reset pending until its chunks load</yellow>");
         defaultMessages.put("mine-info-nextreset", "<gradient:#00ffaa:#00aaff>║</gradient> Next Reset: <green><time></green>");
         defaultMessages.put("mine-info-spawnpoint", "<gradient:#00ffaa:#00aaff>║</gradient> Spawn: <aqua>X:<x> Y:<y> Z:<z></aqua>");
         defaultMessages.put("mine-info-no-spawnpoint", "<gradient:#00ffaa:#00aaff>║</gradient> <yellow>No spawn point set! Use /am settp</yellow>");
         defaultMessages.put("mine-info-composition", "<gradient:#00ffaa:#00aaff>║</gradient> <yellow>Composition:</yellow>");
         defaultMessages.put("mine-info-composition-entry", "<gradient:#00ffaa:#00aaff>║</gradient>   <aqua>• <material>:</aqua> <gold><percentage></gold>");
+        defaultMessages.put("mine-info-composition-placed", "<gradient:#00ffaa:#00aaff>║</gradient>   <aqua>• <material>:</aqua> <gold><percentage></gold> <gray>(last reset <placed>)</gray>");
 
         defaultMessages.put("composition-header", "<gradient:#00ffaa:#00aaff>╔═════ <mine> Composition ═════╗</gradient>");
+        defaultMessages.put("composition-profile-entry", "<gradient:#00ffaa:#00aaff>║</gradient> <gray>Profile:</gray> <yellow><profile></yellow>");
+        defaultMessages.put("profile-header", "<gradient:#00ffaa:#00aaff>╔═════ Composition Profiles ═════╗</gradient>");
+        defaultMessages.put("profile-entry", "<gradient:#00ffaa:#00aaff>║</gradient> <aqua>• <profile></aqua> <dark_gray>→</dark_gray> <gold><materials></gold> <gray>materials, used by</gray> <gold><count></gold> <gray>mine(s)</gray>");
         defaultMessages.put("composition-entry", "<gradient:#00ffaa:#00aaff>║</gradient> <aqua>• <material></aqua> <dark_gray>→</dark_gray> <gold><percentage></gold>");
+        defaultMessages.put("composition-imported", "<green>Composition of mine '<mine>' imported from its blocks (<count> materials)!</green>");
+        defaultMessages.put("composition-import-empty", "<red>Mine '<mine>' contains only air, nothing to import!</red>");
+
+        defaultMessages.put("survey-started", "<yellow>Surveying mine '<mine>'...</yellow>");
+        defaultMessages.put("survey-failed", "<red>Survey of mine '<mine>' failed: <error></red>");
+        defaultMessages.put("survey-header", "<gradient:#00ffaa:#00aaff>╔═════ <mine> Survey ═════╗</gradient>");
+        defaultMessages.put("survey-remaining", "<gradient:#00ffaa:#00aaff>║</gradient> Remaining: <green><percentage></green> <gray>(<blocks> / <total> blocks)</gray>");
+        defaultMessages.put("survey-entry", "<gradient:#00ffaa:#00aaff>║</gradient> <aqua>• <material></aqua> <dark_gray>→</dark_gray> <yellow><count></yellow> <gray>(<percentage>)</gray>");
+        defaultMessages.put("survey-footer", "<gradient:#00ffaa:#00aaff>╚═════════════════════════════════════╝</gradient>");
 
         defaultMessages.put("plugin-info-header", "<gradient:#00ffaa:#00aaff>╔══════════ AxolotMine ══════════╗</gradient>");
         defaultMessages.put("plugin-info-version", "<gradient:#00ffaa:#00aaff>║</gradient> Version: <yellow><version></yellow>");
         defaultMessages.put("plugin-info-author", "<gradient:#00ffaa:#00aaff>║</gradient> Author: <aqua>SilentBit Development Team</aqua>");
         defaultMessages.put("plugin-info-mines", "<gradient:#00ffaa:#00aaff>║</gradient> Total Mines: <green><count></green>");
+        defaultMessages.put("plugin-info-resyncs", "<gradient:#00ffaa:#00aaff>║</gradient> Chunk Resyncs: <yellow><count></yellow>");
+        defaultMessages.put("plugin-info-backend", "<gradient:#00ffaa:#00aaff>║</gradient> <aqua><backend></aqua>: <white><count></white> resets <dark_gray>│</dark_gray> avg <gold><time>ms</gold> <dark_gray>│</dark_gray> <yellow><blocks></yellow> blocks/ms");
+
+        defaultMessages.put("bench-started", "<yellow>Benchmarking <backends> on a <size>³ cube, this takes a few seconds...</yellow>");
+        defaultMessages.put("bench-running", "<red>A benchmark is already running!</red>");
+        defaultMessages.put("bench-no-world", "<red>Benchmark world '<world>' is not loaded! Check bench.world in config.yml</red>");
+        defaultMessages.put("bench-invalid-size", "<red>Size must be between 1 and <max>!</red>");
+        defaultMessages.put("bench-failed", "<red>Benchmark failed: <error></red>");
+        defaultMessages.put("bench-header", "<gradient:#00ffaa:#00aaff>╔═════ Benchmark <size>³ (<blocks> blocks, <runs> runs) ═════╗</gradient>");
+        defaultMessages.put("bench-entry", "<gradient:#00ffaa:#00aaff>║</gradient> <aqua><backend></aqua>: <yellow><rate></yellow> blocks/s <dark_gray>│</dark_gray> p95 <gold><p95>ms</gold>/tick <dark_gray>│</dark_gray> <white><alloc></white> MB/s allocated");
 
         // Help messages
         defaultMessages.put("help-header", "<gradient:#00ffaa:#00aaff>╔════════ AxolotMine Commands ════════╗</gradient>");
@@ -84,12 +135,20 @@ public class MessageUtil {
         defaultMessages.put("help-delete", "<gradient:#00ffaa:#00aaff>║</gradient> <yellow>/am delete <name></yellow> <dark_gray>→</dark_gray> <gray>Delete mine</gray>");
         defaultMessages.put("help-list", "<gradient:#00ffaa:#00aaff>║</gradient> <yellow>/am list</yellow> <dark_gray>→</dark_gray> <gray>List mines</gray>");
         defaultMessages.put("help-info", "<gradient:#00ffaa:#00aaff>║</gradient> <yellow>/am info [mine]</yellow> <dark_gray>→</dark_gray> <gray>Show info</gray>");
-        defaultMessages.put("help-setinterval", "<gradient:#00ffaa:#00aaff>║</gradient> <yellow>/am setinterval <name> <sec></yellow> <dark_gray>→</dark_gray> <gray>Set interval</gray>");
+        defaultMessages.put("help-setinterval", "<gradient:#00ffaa:#00aaff>║</gradient> <yellow>/am setinterval <name> <sec|adaptive|schedule></yellow> <dark_gray>→</dark_gray> <gray>Set interval</gray>");
         defaultMessages.put("help-settp", "<gradient:#00ffaa:#00aaff>║</gradient> <yellow>/am settp <name></yellow> <dark_gray>→</dark_gray> <gray>Set spawn point</gray>");
         defaultMessages.put("help-teleport", "<gradient:#00ffaa:#00aaff>║</gradient> <yellow>/am tp <name></yellow> <dark_gray>→</dark_gray> <gray>Teleport to mine</gray>");
-        defaultMessages.put("help-composition", "<gradient:#00ffaa:#00aaff>║</gradient> <yellow>/am comp <name> [add|remove]</yellow> <dark_gray>→</dark_gray> <gray>Edit blocks</gray>");
+        defaultMessages.put("help-composition", "<gradient:#00ffaa:#00aaff>║</gradient> <yellow>/am comp <name> [add|remove|import]</yellow> <dark_gray>→</dark_gray> <gray>Edit blocks</gray>");
+        defaultMessages.put("help-profile", "<gradient:#00ffaa:#00aaff>║</gradient> <yellow>/am profile <name> <profile|none></yellow> <dark_gray>→</dark_gray> <gray>Use a shared composition</gray>");
+        defaultMessages.put("help-seed", "<gradient:#00ffaa:#00aaff>║</gradient> <yellow>/am seed <name> [policy] [seed]</yellow> <dark_gray>→</dark_gray> <gray>Layout seed</gray>");
+        defaultMessages.put("help-snapshot", "<gradient:#00ffaa:#00aaff>║</gradient> <yellow>/am snapshot <name> [clear]</yellow> <dark_gray>→</dark_gray> <gray>Restore to current blocks</gray>");
+        defaultMessages.put("help-survey", "<gradient:#00ffaa:#00aaff>║</gradient> <yellow>/am survey <name></yellow> <dark_gray>→</dark_gray> <gray>Count remaining blocks</gray>");
+        defaultMessages.put("help-bench", "<gradient:#00ffaa:#00aaff>║</gradient> <yellow>/am bench <size> [backend]</yellow> <dark_gray>→</dark_gray> <gray>Benchmark resets</gray>");
         defaultMessages.put("help-reload", "<gradient:#00ffaa:#00aaff>║</gradient> <yellow>/am reload</yellow> <dark_gray>→</dark_gray> <gray>Reload config</gray>");
         defaultMessages.put("help-footer", "<gradient:#00ffaa:#00aaff>╚═════════════════════════════════════╝</gradient>");
+        defaultMessages.put("warning-countdown", "<yellow><mine></yellow> <gray>resets in</gray> <red><time>s</red>");
+        defaultMessages.put("warning-title", "<red><time></red>");
+        defaultMessages.put("warning-subtitle", "<gray>Mine <yellow><mine></yellow> is about to reset</gray>");
         defaultMessages.put("mine-info-lastreset", "<gradient:#00ffaa:#00aaff>║</gradient> Last Reset: <gray><minutes> minutes ago</gray>");
     }
 
@@ -98,6 +157,20 @@ public class MessageUtil {
     }
 
     public void sendMessage(CommandSender sender, String key, Map<String, String> placeholders) {
+        sender.sendMessage(render(key, placeholders, true));
+    }
+
+    /**
+     * Renders a message without the chat prefix, for boss bars, action bars and titles.
+     */
+    public Component render(String key, Map<String, String> placeholders) {
+        return render(key, placeholders, false);
+    }
+
+    private Component render(String key, Map<String, String> placeholders, boolean prefixed) {
+        MessageRender event = new MessageRender();
+        event.begin();
+
         // Try to get from messages.yml first
         String message = plugin.getConfigManager().getMessages().getString(key);
 
@@ -112,7 +185,7 @@ public class MessageUtil {
         }
 
         // Add prefix if not a header/footer/list entry
-        if (!key.contains("header") && !key.contains("footer") && !key.contains("entry")
+        if (prefixed && !key.contains("header") && !key.contains("footer") && !key.contains("entry")
                 && !key.contains("info-") && !key.contains("help-")) {
             String prefix = plugin.getConfigManager().getMessages().getString("prefix", "");
             if (!prefix.isEmpty()) {
@@ -121,6 +194,14 @@ public class MessageUtil {
         }
 
         Component component = plugin.getMiniMessage().deserialize(message);
-        sender.sendMessage(component);
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.key = key;
+            event.length = message.length();
+            event.commit();
+        }
+
+        return component;
     }
 }
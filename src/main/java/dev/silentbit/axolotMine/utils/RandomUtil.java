@@ -0,0 +1,36 @@
+package dev.silentbit.axolotMine.utils;
+
+import java.util.SplittableRandom;
+
+public class RandomUtil {
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    /**
+     * SplitMix64 finalizer, spreads every input bit over the whole output
+     */
+    public static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    }
+
+    /**
+     * Derives the seed of the n-th reset from a mine's base seed
+     */
+    public static long rotate(long seed, long resetCount) {
+        return mix(seed + GOLDEN_GAMMA * (resetCount + 1));
+    }
+
+    /**
+     * Creates an independent stream for one chunk section of a layout.
+     * The result only depends on the seed and the section position, so
+     * sections can be generated in any order or in parallel.
+     */
+    public static SplittableRandom forSection(long seed, int chunkX, int sectionY, int chunkZ) {
+        long key = mix(seed ^ mix(chunkX * GOLDEN_GAMMA));
+        key = mix(key ^ mix(sectionY * GOLDEN_GAMMA + 1));
+        key = mix(key ^ mix(chunkZ * GOLDEN_GAMMA + 2));
+        return new SplittableRandom(key);
+    }
+}
@@ -0,0 +1,200 @@
+package dev.silentbit.axolotMine.utils;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitScheduler;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Runs plugin work on the right thread on Folia, Paper and Spigot.
+ *
+ * The platform is detected once. On Folia every call goes to the region,
+ * entity, global region or async scheduler. Elsewhere there is a single main
+ * thread, so region, entity and global work all run on it through the Bukkit
+ * scheduler and async work goes to its async pool. Delays and periods are in
+ * ticks unless a {@link TimeUnit} is given.
+ */
+public final class SchedulerFacade {
+
+    private final Plugin plugin;
+    private final boolean folia;
+
+    public SchedulerFacade(Plugin plugin) {
+        this.plugin = plugin;
+        this.folia = FoliaUtil.isFolia();
+    }
+
+    public boolean isFolia() {
+        return folia;
+    }
+
+    // Region, the thread owning a location or chunk
+
+    public void runRegion(Location location, Runnable task) {
+        if (folia) {
+            plugin.getServer().getRegionScheduler().execute(plugin, location, task);
+        } else {
+            bukkit().runTask(plugin, task);
+        }
+    }
+
+    public void runRegion(World world, int chunkX, int chunkZ, Runnable task) {
+        if (folia) {
+            plugin.getServer().getRegionScheduler().execute(plugin, world, chunkX, chunkZ, task);
+        } else {
+            bukkit().runTask(plugin, task);
+        }
+    }
+
+    public Task runRegionDelayed(Location location, Runnable task, long delayTicks) {
+        Handle handle = new Handle();
+        if (folia) {
+            handle.bind(plugin.getServer().getRegionScheduler()
+                    .runDelayed(plugin, location, scheduled -> task.run(), Math.max(1L, delayTicks))::cancel);
+        } else {
+            handle.bind(bukkit().runTaskLater(plugin, task, delayTicks)::cancel);
+        }
+        return handle;
+    }
+
+    public Task runRegionAtFixedRate(Location location, Consumer<Task> task, long delayTicks, long periodTicks) {
+        Handle handle = new Handle();
+        if (folia) {
+            handle.bind(plugin.getServer().getRegionScheduler().runAtFixedRate(plugin, location,
+                    scheduled -> task.accept(handle), Math.max(1L, delayTicks), periodTicks)::cancel);
+        } else {
+            handle.bind(bukkit().runTaskTimer(plugin, () -> task.accept(handle), delayTicks, periodTicks)::cancel);
+        }
+        return handle;
+    }
+
+    // Entity, follows the entity across regions
+
+    /**
+     * Runs the task on the thread owning the entity. {@code retired} runs
+     * instead if the entity is removed before that, it may be null.
+     */
+    public void runEntity(Entity entity, Runnable task, Runnable retired) {
+        if (folia) {
+            entity.getScheduler().execute(plugin, task, retired, 1L);
+            return;
+        }
+
+        bukkit().runTask(plugin, () -> {
+            if (entity.isValid()) {
+                task.run();
+            } else if (retired != null) {
+                retired.run();
+            }
+        });
+    }
+
+    // Global, work that belongs to no region
+
+    public void runGlobal(Runnable task) {
+        if (folia) {
+            plugin.getServer().getGlobalRegionScheduler().execute(plugin, task);
+        } else {
+            bukkit().runTask(plugin, task);
+        }
+    }
+
+    public Task runGlobalDelayed(Runnable task, long delayTicks) {
+        Handle handle = new Handle();
+        if (folia) {
+            handle.bind(plugin.getServer().getGlobalRegionScheduler()
+                    .runDelayed(plugin, scheduled -> task.run(), Math.max(1L, delayTicks))::cancel);
+        } else {
+            handle.bind(bukkit().runTaskLater(plugin, task, delayTicks)::cancel);
+        }
+        return handle;
+    }
+
+    public Task runGlobalAtFixedRate(Runnable task, long delayTicks, long periodTicks) {
+        Handle handle = new Handle();
+        if (folia) {
+            handle.bind(plugin.getServer().getGlobalRegionScheduler()
+                    .runAtFixedRate(plugin, scheduled -> task.run(), Math.max(1L, delayTicks), periodTicks)::cancel);
+        } else {
+            handle.bind(bukkit().runTaskTimer(plugin, task, delayTicks, periodTicks)::cancel);
+        }
+        return handle;
+    }
+
+    // Async, off every game thread
+
+    public void runAsync(Runnable task) {
+        if (folia) {
+            plugin.getServer().getAsyncScheduler().runNow(plugin, scheduled -> task.run());
+        } else {
+            bukkit().runTaskAsynchronously(plugin, task);
+        }
+    }
+
+    public Task runAsyncAtFixedRate(Runnable task, long delay, long period, TimeUnit unit) {
+        Handle handle = new Handle();
+        if (folia) {
+            handle.bind(plugin.getServer().getAsyncScheduler()
+                    .runAtFixedRate(plugin, scheduled -> task.run(), delay, period, unit)::cancel);
+        } else {
+            // The Bukkit pool is driven by the tick loop, so the rate is rounded to ticks
+            handle.bind(bukkit().runTaskTimerAsynchronously(plugin, task, toTicks(delay, unit),
+                    Math.max(1L, toTicks(period, unit)))::cancel);
+        }
+        return handle;
+    }
+
+    private BukkitScheduler bukkit() {
+        return plugin.getServer().getScheduler();
+    }
+
+    private static long toTicks(long duration, TimeUnit unit) {
+        return unit.toMillis(duration) / 50L;
+    }
+
+    /**
+     * A scheduled task that can be cancelled the same way on every platform.
+     */
+    public interface Task {
+
+        void cancel();
+
+        boolean isCancelled();
+    }
+
+    /**
+     * Created before the platform task so a repeating task gets the same
+     * handle on every run, even on its first run on another thread before
+     * scheduling returned. Cancelling that early cancels once it is bound.
+     */
+    private static final class Handle implements Task {
+
+        private volatile Runnable canceller;
+        private volatile boolean cancelled;
+
+        private void bind(Runnable canceller) {
+            this.canceller = canceller;
+            if (cancelled) {
+                canceller.run();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            Runnable canceller = this.canceller;
+            if (canceller != null) {
+                canceller.run();
+            }
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package dev.silentbit.axolotMine.models;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ResetScheduleTest {
+
+    private static final ZoneId UTC = ZoneOffset.UTC;
+    // Clocks go forward 2026-03-29 02:00 -> 03:00 and back 2026-10-25 03:00 -> 02:00
+    private static final ZoneId BERLIN = ZoneId.of("Europe/Berlin");
+
+    @Test
+    void stepOnWildcardCoversWholeField() {
+        ResetSchedule schedule = ResetSchedule.parse("*/15 * * * *", "*/15 * * * *", UTC);
+
+        assertEquals(at("2026-10-19T10:15Z"), schedule.next(at("2026-10-19T10:07Z")));
+        assertEquals(at("2026-10-19T10:30Z"), schedule.next(at("2026-10-19T10:15Z")));
+        assertEquals(at("2026-10-19T11:00Z"), schedule.next(at("2026-10-19T10:45Z")));
+    }
+
+    @Test
+    void stepFromValueRunsToEndOfField() {
+        ResetSchedule schedule = ResetSchedule.parse("5/10 * * * *", "5/10 * * * *", UTC);
+
+        assertEquals(at("2026-10-19T10:05Z"), schedule.next(at("2026-10-19T10:00Z")));
+        assertEquals(at("2026-10-19T10:55Z"), schedule.next(at("2026-10-19T10:45Z")));
+        assertEquals(at("2026-10-19T11:05Z"), schedule.next(at("2026-10-19T10:55Z")));
+    }
+
+    @Test
+    void weekdaySevenIsSunday() {
+        ResetSchedule seven = ResetSchedule.parse("0 12 * * 7", "0 12 * * 7", UTC);
+        ResetSchedule zero = ResetSchedule.parse("0 12 * * 0", "0 12 * * 0", UTC);
+
+        // 2026-10-14 is a Wednesday
+        assertEquals(at("2026-10-18T12:00Z"), seven.next(at("2026-10-14T00:00Z")));
+        assertEquals(zero.next(at("2026-10-14T00:00Z")), seven.next(at("2026-10-14T00:00Z")));
+    }
+
+    @Test
+    void eitherRestrictedDayFieldMatches() {
+        ResetSchedule schedule = ResetSchedule.parse("0 0 13 * 5", "0 0 13 * 5", UTC);
+
+        // A Friday that is not the 13th, then a 13th that is a Sunday
+        assertEquals(at("2026-10-23T00:00Z"), schedule.next(at("2026-10-19T00:00Z")));
+        assertEquals(at("2026-12-13T00:00Z"), schedule.next(at("2026-12-12T00:00Z")));
+    }
+
+    @Test
+    void dayMissingFromMonthIsSkipped() {
+        ResetSchedule schedule = ResetSchedule.parse("0 0 31 * *", "0 0 31 * *", UTC);
+
+        assertEquals(at("2026-05-31T00:00Z"), schedule.next(at("2026-04-01T00:00Z")));
+        assertEquals(at("2026-07-31T00:00Z"), schedule.next(at("2026-05-31T00:00Z")));
+    }
+
+    @Test
+    void dailyRollsOverMonthAndYearEnd() {
+        ResetSchedule schedule = ResetSchedule.parse("0 0 * * *", "0 0 * * *", UTC);
+
+        assertEquals(at("2026-03-01T00:00Z"), schedule.next(at("2026-02-28T12:00Z")));
+        assertEquals(at("2027-01-01T00:00Z"), schedule.next(at("2026-12-31T23:59Z")));
+    }
+
+    @Test
+    void leapDayWaitsForLeapYear() {
+        ResetSchedule schedule = ResetSchedule.parse("0 0 29 2 *", "0 0 29 2 *", UTC);
+
+        assertEquals(at("2028-02-29T00:00Z"), schedule.next(at("2026-03-01T00:00Z")));
+    }
+
+    @Test
+    void timeSkippedByClocksGoingForwardRunsAfterTheJump() {
+        ResetSchedule schedule = ResetSchedule.parse("30 2 * * *", "30 2 * * *", BERLIN);
+
+        assertEquals(at("2026-03-29T03:00+02:00"), schedule.next(at("2026-03-29T00:00+01:00")));
+        assertEquals(at("2026-03-29T03:00+02:00"), schedule.next(at("2026-03-29T01:59+01:00")));
+        assertEquals(at("2026-03-30T02:30+02:00"), schedule.next(at("2026-03-29T03:00+02:00")));
+    }
+
+    @Test
+    void timeRepeatedByClocksGoingBackRunsOnce() {
+        ResetSchedule schedule = ResetSchedule.parse("30 2 * * *", "30 2 * * *", BERLIN);
+
+        assertEquals(at("2026-10-25T02:30+02:00"), schedule.next(at("2026-10-25T00:00+02:00")));
+        assertEquals(at("2026-10-26T02:30+01:00"), schedule.next(at("2026-10-25T02:30+02:00")));
+        assertEquals(at("2026-10-26T02:30+01:00"), schedule.next(at("2026-10-25T02:10+01:00")));
+    }
+
+    @Test
+    void hourlyFollowsRealHoursAcrossClocksGoingBack() {
+        ResetSchedule schedule = ResetSchedule.parse("0 * * * *", "0 * * * *", BERLIN);
+
+        assertEquals(at("2026-10-25T02:00+01:00"), schedule.next(at("2026-10-25T02:00+02:00")));
+        assertEquals(at("2026-10-25T03:00+01:00"), schedule.next(at("2026-10-25T02:00+01:00")));
+    }
+
+    @Test
+    void hourlyKeepsRealHoursAcrossClocksGoingForward() {
+        ResetSchedule schedule = ResetSchedule.parse("0 * * * *", "0 * * * *", BERLIN);
+
+        assertEquals(at("2026-03-29T03:00+02:00"), schedule.next(at("2026-03-29T01:00+01:00")));
+    }
+
+    @Test
+    void invalidExpressionsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> ResetSchedule.parse("x", "60 * * * *", UTC));
+        assertThrows(IllegalArgumentException.class, () -> ResetSchedule.parse("x", "* * * *", UTC));
+        assertThrows(IllegalArgumentException.class, () -> ResetSchedule.parse("x", "0 0 * * 8", UTC));
+        assertThrows(IllegalArgumentException.class, () -> ResetSchedule.parse("x", "10-5 * * * *", UTC));
+    }
+
+    private static long at(String time) {
+        return OffsetDateTime.parse(time).toInstant().toEpochMilli();
+    }
+}